@@ -0,0 +1,164 @@
+package duke;
+
+import static duke.Checks.describe;
+import static duke.Checks.expect;
+import static duke.Checks.expectEquals;
+import static duke.Checks.open;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import duke.exception.SaveException;
+import duke.task.ToDo;
+
+/**
+ * Checks of the asynchronous storage: changes reach the save file within the maximum staleness or on close, a write
+ * which fails is done again once the cause is gone, and a process killed while writing leaves a save file holding
+ * the tasks it had written.
+ */
+public class AsyncCheck {
+    protected static final String CHILD_ARGUMENT = "child";
+    protected static final int KILLS = 8;
+    protected static final long SEED = 1;
+    protected static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Run all checks of the asynchronous storage, or keep adding tasks until killed when run as a child
+     * @param args Nothing, or "child" followed by the path of the save file
+     * @throws Exception This is thrown when a check cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals(CHILD_ARGUMENT)) {
+            addUntilKilled(args[1]);
+            return;
+        }
+        Path directory = Checks.createWorkDirectory("async");
+        checkWrittenOnClose(directory.resolve("closed.save").toString());
+        checkWrittenWhenStale(directory.resolve("stale.save").toString());
+        checkFailedWrite(directory.resolve("failed.save").toString());
+        checkKilledWhileWriting(directory.resolve("killed.save").toString());
+    }
+
+    /**
+     * Check changes waiting for the writer are written by close()
+     */
+    protected static void checkWrittenOnClose(String filepath) throws Exception {
+        AsyncStorage storage = new AsyncStorage(filepath, TimeUnit.MINUTES.toMillis(1));
+        TaskList tasks = open(storage);
+        for (int i = 0; i < 100; i += 1) {
+            tasks.addTask(new ToDo("task " + i));
+        }
+        tasks.markTaskAsDone(42);
+        tasks.deleteTask(7);
+        storage.close();
+        expectEquals(describe(tasks), describe(new Storage(filepath).load()), "Tasks written by close()");
+        expect(storage.shutdownHook == null, "The shutdown hook is removed by close()");
+    }
+
+    /**
+     * Check changes are written without closing, once they are as old as the maximum staleness
+     */
+    protected static void checkWrittenWhenStale(String filepath) throws Exception {
+        AsyncStorage storage = new AsyncStorage(filepath, 50);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        waitUntilWritten(filepath, describe(tasks));
+        tasks.markTaskAsDone(0);
+        waitUntilWritten(filepath, describe(tasks));
+        storage.close();
+    }
+
+    /**
+     * Make the writes fail for a while, and check the changes made meanwhile are written once they succeed again
+     */
+    protected static void checkFailedWrite(String filepath) throws Exception {
+        AsyncStorage storage = new AsyncStorage(filepath, 20);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        waitUntilWritten(filepath, describe(tasks));
+
+        // The temporary file cannot be created while a directory is in its place
+        Path blocker = Path.of(filepath + Storage.TEMP_SUFFIX);
+        Files.createDirectory(blocker);
+        tasks.addTask(new ToDo("b"));
+        boolean isReported = false;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!isReported && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            try {
+                tasks.markTaskAsDone(0);
+            } catch (IOException | SaveException e) {
+                isReported = true;
+            }
+        }
+        expect(isReported, "A failed write is reported by the next change");
+        Files.delete(blocker);
+
+        // Without any change after the failure, which would mark the list as dirty again
+        waitUntilWritten(filepath, describe(tasks));
+        tasks.addTask(new ToDo("c"));
+        storage.close();
+        expectEquals(describe(tasks), describe(new Storage(filepath).load()), "Tasks written after a failure");
+    }
+
+    /**
+     * Kill a process adding tasks as fast as it can at random times, and check the save file it leaves always loads
+     * and holds the tasks in the order they were added
+     */
+    protected static void checkKilledWhileWriting(String filepath) throws Exception {
+        Random random = new Random(SEED);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        int lastSize = 0;
+        for (int i = 0; i < KILLS; i += 1) {
+            Process child = new ProcessBuilder(java, "-classpath", System.getProperty("java.class.path"),
+                    AsyncCheck.class.getName(), CHILD_ARGUMENT, filepath)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            Thread.sleep(300 + random.nextInt(700));
+            child.destroyForcibly();
+            expect(child.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), "The child process is killed");
+
+            List<String> loaded = describe(new Storage(filepath).load());
+            for (int j = 0; j < loaded.size(); j += 1) {
+                expectEquals(new ToDo("task " + j).toString(), loaded.get(j), "Task " + j + " after kill " + i);
+            }
+            expect(loaded.size() >= lastSize, "Tasks written before kill " + i + " are kept");
+            lastSize = loaded.size();
+        }
+        expect(lastSize > 0, "The child processes have written tasks");
+    }
+
+    /**
+     * Keep adding tasks to the list of a save file, numbered from its size on, until the process is killed
+     */
+    protected static void addUntilKilled(String filepath) throws Exception {
+        AsyncStorage storage = new AsyncStorage(filepath, 1);
+        TaskList tasks = open(storage);
+        for (int i = tasks.size(); true; i += 1) {
+            tasks.addTask(new ToDo("task " + i));
+        }
+    }
+
+    protected static void waitUntilWritten(String filepath, List<String> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                // Once renamed into place, as the temporary file of a write in progress is loaded as well
+                if (describe(new Storage(filepath).load()).equals(expected)
+                        && !Files.exists(Path.of(filepath + Storage.TEMP_SUFFIX))) {
+                    return;
+                }
+            } catch (SaveException e) {
+                // Not written yet
+            }
+            expect(System.currentTimeMillis() < deadline, "Tasks written within " + TIMEOUT_MILLIS + " ms");
+            Thread.sleep(10);
+        }
+    }
+}
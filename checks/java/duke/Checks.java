@@ -0,0 +1,92 @@
+package duke;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import duke.exception.SaveException;
+import duke.task.Task;
+
+/**
+ * Helpers shared by the checks, which are programs run by runchecks.sh instead of a test framework.
+ * A failed expectation throws an AssertionError, so the check exits with an error whether assertions are on or not.
+ */
+public class Checks {
+    /**
+     * Fail the check unless a condition holds
+     * @param condition The condition expected to hold
+     * @param message Description of what went wrong
+     */
+    public static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Fail the check unless two objects are equal
+     * @param expected The object expected
+     * @param actual The object got
+     * @param message Description of what was compared
+     */
+    public static void expectEquals(Object expected, Object actual, String message) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    /**
+     * Create an empty directory for the files of a check, deleted when the JVM exits
+     * @param name Name of the check
+     * @return Path of the directory
+     * @throws IOException This is thrown when the directory cannot be created
+     */
+    public static Path createWorkDirectory(String name) throws IOException {
+        Path directory = Files.createTempDirectory("duke-" + name);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(directory)));
+        return directory;
+    }
+
+    /**
+     * Load the task list of a storage the way Duke does, starting from an empty list when there is nothing to load
+     * @param storage The storage to load from
+     * @return The task list loaded
+     * @throws IOException This is thrown when file reading encounters an error
+     */
+    public static TaskList open(Storage storage) throws IOException {
+        try {
+            return storage.load();
+        } catch (SaveException e) {
+            return storage.createTaskList();
+        }
+    }
+
+    /**
+     * Describe all tasks of a list, so that lists can be compared
+     * @param tasks The task list
+     * @return The string of every task, in order
+     */
+    public static List<String> describe(TaskList tasks) {
+        List<String> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            result.add(task.toString());
+        }
+        return result;
+    }
+
+    protected static void deleteRecursively(Path path) {
+        try {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.forEach(Checks::deleteRecursively);
+                }
+            }
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left in the temporary directory
+        }
+    }
+}
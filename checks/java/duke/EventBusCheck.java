@@ -0,0 +1,179 @@
+package duke;
+
+import static duke.Checks.expect;
+import static duke.Checks.expectEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import duke.event.BatchingSubscriber;
+import duke.event.TaskEvent;
+import duke.event.TaskEventBus;
+import duke.task.ToDo;
+
+/**
+ * Checks of the batched subscriptions to the event bus: changes arrive in the order they were made, in batches no
+ * larger than the maximum, no later than the maximum delay, all of them by the time the bus is closed, and a failure
+ * of a subscriber neither stops the deliveries nor goes unnoticed.
+ */
+public class EventBusCheck {
+    protected static final int CHANGES = 2000;
+    protected static final long SEED = 1;
+    protected static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Batches delivered to a subscriber, kept as the ids of their events
+     */
+    protected static class Recorder {
+        protected final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        protected void onEvents(List<TaskEvent> events) {
+            List<Long> ids = new ArrayList<>(events.size());
+            for (TaskEvent event : events) {
+                ids.add(event.getId());
+            }
+            batches.add(ids);
+        }
+
+        protected List<Long> delivered() {
+            List<Long> ids = new ArrayList<>();
+            synchronized (batches) {
+                batches.forEach(ids::addAll);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Run all checks of the batched subscriptions
+     * @param args Not used
+     * @throws Exception This is thrown when a check cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        checkOrder();
+        checkBatchSize();
+        checkDelay();
+        checkFailure();
+    }
+
+    /**
+     * Make random changes to a list from the thread of the list, and check a batched subscriber gets them in the order
+     * a synchronous one does, in batches no larger than the maximum
+     */
+    protected static void checkOrder() throws Exception {
+        Random random = new Random(SEED);
+        TaskList tasks = new TaskList();
+        List<Long> published = new ArrayList<>();
+        tasks.getEvents().subscribe(event -> published.add(event.getId()));
+        Recorder recorder = new Recorder();
+        tasks.getEvents().subscribeBatched(recorder::onEvents, 5, 7);
+        for (int i = 0; i < CHANGES; i += 1) {
+            if (tasks.size() < 2 || random.nextInt(3) > 0) {
+                tasks.add(new ToDo("task " + i));
+            } else if (random.nextBoolean()) {
+                tasks.markAsDone(random.nextInt(tasks.size()));
+            } else {
+                tasks.remove(random.nextInt(tasks.size()));
+            }
+            if (random.nextInt(200) == 0) {
+                // Let the deliverer catch up, so that it also gets batches smaller than the maximum
+                Thread.sleep(10);
+            }
+        }
+        tasks.getEvents().close();
+        expectEquals(published, recorder.delivered(), "Changes delivered in batches");
+        for (List<Long> batch : recorder.batches) {
+            expect(!batch.isEmpty() && batch.size() <= 7, "Size of a batch: " + batch.size());
+        }
+
+        tasks.add(new ToDo("after close"));
+        expectEquals(published.size() - 1, recorder.delivered().size(), "Changes delivered after the bus is closed");
+    }
+
+    /**
+     * Publish more changes than fit in a batch with a delay too long to wait for, and check full batches are delivered
+     * right away while the rest waits for close()
+     */
+    protected static void checkBatchSize() throws Exception {
+        TaskEventBus bus = new TaskEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribeBatched(recorder::onEvents, TIMEOUT_MILLIS * 10, 10);
+        publish(bus, 25);
+        waitUntilDelivered(recorder, 20);
+        Thread.sleep(50);
+        expectEquals(20, recorder.delivered().size(), "Changes delivered before the delay is over");
+        bus.close();
+        List<Integer> sizes = new ArrayList<>();
+        for (List<Long> batch : recorder.batches) {
+            sizes.add(batch.size());
+        }
+        expectEquals(List.of(10, 10, 5), sizes, "Sizes of the batches");
+        expect(!bus.hasListeners(), "The subscription is removed from the bus on close");
+    }
+
+    /**
+     * Publish a single change, and check it is delivered once it has waited for the maximum delay, and not before
+     */
+    protected static void checkDelay() throws Exception {
+        TaskEventBus bus = new TaskEventBus();
+        Recorder recorder = new Recorder();
+        bus.subscribeBatched(recorder::onEvents, 200, 100);
+        long start = System.currentTimeMillis();
+        publish(bus, 1);
+        waitUntilDelivered(recorder, 1);
+        long elapsed = System.currentTimeMillis() - start;
+        expect(elapsed >= 200, "A change delivered after " + elapsed + " ms, before the delay is over");
+        bus.close();
+        expectEquals(1, recorder.batches.size(), "Batches delivered");
+    }
+
+    /**
+     * Make the subscriber fail on its first batch, and check the later batches are still delivered and the failure is
+     * thrown by close(), once
+     */
+    protected static void checkFailure() throws Exception {
+        TaskEventBus bus = new TaskEventBus();
+        Recorder recorder = new Recorder();
+        RuntimeException failure = new IllegalStateException("subscriber failed");
+        BatchingSubscriber subscriber = bus.subscribeBatched(events -> {
+            boolean isFirst = recorder.batches.isEmpty();
+            recorder.onEvents(events);
+            if (isFirst) {
+                throw failure;
+            }
+        }, 1, 1);
+        // Closed by the bus after the failing one, with a change still waiting
+        Recorder other = new Recorder();
+        bus.subscribeBatched(other::onEvents, TIMEOUT_MILLIS * 10, 100);
+        publish(bus, 3);
+        waitUntilDelivered(recorder, 3);
+        try {
+            bus.close();
+            expect(false, "The failure of the subscriber is thrown by close()");
+        } catch (IllegalStateException e) {
+            expect(e == failure, "The failure thrown by close() is the one of the subscriber");
+        }
+        expectEquals(List.of(0L, 1L, 2L), recorder.delivered(), "Changes delivered after a failure");
+        expectEquals(List.of(0L, 1L, 2L), other.delivered(), "Changes delivered to another subscriber");
+        expect(!bus.hasListeners(), "Every subscription is removed from the bus on close");
+        // Already reported
+        subscriber.close();
+    }
+
+    protected static void publish(TaskEventBus bus, int count) throws Exception {
+        for (int i = 0; i < count; i += 1) {
+            bus.publish(new TaskEvent.Added(i, i, new ToDo("task " + i)));
+        }
+    }
+
+    protected static void waitUntilDelivered(Recorder recorder, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (recorder.delivered().size() < count) {
+            expect(System.currentTimeMillis() < deadline,
+                    count + " changes delivered within " + TIMEOUT_MILLIS + " ms");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package duke;
+
+import static duke.Checks.expectEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import duke.store.ChunkedTaskStore;
+import duke.store.ColumnarTaskStore;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * Check of the trigram index answering find: after every random change to a list, finding random needles through the
+ * index gives the same tasks, in the same order, as checking every task of the list in turn.
+ */
+public class FindIndexCheck {
+    protected static final int ROUNDS = 40;
+    protected static final int CHANGES = 400;
+    protected static final long SEED = 1;
+    // Letters the descriptions are made of, few of them so that trigrams are shared, with some changing case
+    protected static final String LETTERS = "abcABC xyzÉéİıßΣσς";
+
+    /**
+     * Run the check on lists kept in both kinds of stores
+     * @param args Not used
+     * @throws Exception This is thrown when a task cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(SEED);
+        for (int round = 0; round < ROUNDS; round += 1) {
+            TaskList tasks = new TaskList(null, round % 2 == 0 ? new ChunkedTaskStore() : new ColumnarTaskStore());
+            for (int i = 0; i < CHANGES; i += 1) {
+                change(tasks, random);
+                if (random.nextInt(4) == 0) {
+                    String needle = createNeedle(tasks, random);
+                    expectEquals(scan(tasks, needle), describe(tasks.find(needle)),
+                            "Tasks found by '" + needle + "' in round " + round + " after change " + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Make a random change to the list, sometimes inside a transaction which is rolled back
+     */
+    protected static void change(TaskList tasks, Random random) throws Exception {
+        int size = tasks.size();
+        int kind = size < 2 ? 0 : random.nextInt(9);
+        switch (kind) {
+        case 0:
+        case 1:
+        case 2:
+            tasks.add(createTask(random));
+            break;
+        case 3:
+            tasks.set(random.nextInt(size), createTask(random));
+            break;
+        case 4:
+            tasks.markAsDone(random.nextInt(size));
+            break;
+        case 5:
+            tasks.remove(random.nextInt(size));
+            break;
+        case 6:
+            int first = random.nextInt(size - 1);
+            if (random.nextBoolean()) {
+                tasks.removeAll(new int[] {first, first + 1});
+            } else {
+                tasks.markAllAsDone(new int[] {first, first + 1});
+            }
+            break;
+        case 7:
+            // Many tasks gone at once, so that the index is rebuilt
+            tasks.removeAll(tasks.indexesOf(task -> random.nextInt(3) == 0));
+            break;
+        default:
+            tasks.begin();
+            tasks.add(createTask(random));
+            tasks.markAsDone(0);
+            tasks.remove(tasks.size() / 2);
+            tasks.rollback();
+            break;
+        }
+    }
+
+    protected static Task createTask(Random random) throws Exception {
+        String description = createText(random, 1 + random.nextInt(12));
+        DateTime dateTime = DateTime.ofEpochSecond(random.nextInt(1 << 30));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Deadline(description, dateTime);
+        case 1:
+            return new Event(description, dateTime);
+        default:
+            return new ToDo(description);
+        }
+    }
+
+    /**
+     * Create a needle: mostly a part of the string of a task in the list, sometimes random text
+     */
+    protected static String createNeedle(TaskList tasks, Random random) {
+        int length = 1 + random.nextInt(6);
+        if (tasks.isEmpty() || random.nextInt(4) == 0) {
+            return createText(random, length);
+        }
+        String text = tasks.get(random.nextInt(tasks.size())).toString();
+        int start = random.nextInt(text.length());
+        return text.substring(start, Math.min(text.length(), start + length));
+    }
+
+    protected static String createText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1) {
+            text.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        // A description cannot be blank
+        return text.toString().isBlank() ? "a" + text : text.toString();
+    }
+
+    /**
+     * Find the tasks containing the needle by checking every task of the list, described by their strings
+     */
+    protected static List<String> scan(TaskList tasks, String needle) {
+        List<String> found = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.toString().contains(needle)) {
+                found.add(task.toString());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Describe the tasks found, as a columnar store decodes a new object each time a task is read
+     */
+    protected static List<String> describe(Iterator<Task> tasks) {
+        List<String> result = new ArrayList<>();
+        while (tasks.hasNext()) {
+            result.add(tasks.next().toString());
+        }
+        return result;
+    }
+}
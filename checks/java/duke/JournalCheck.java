@@ -0,0 +1,298 @@
+package duke;
+
+import static duke.Checks.describe;
+import static duke.Checks.expect;
+import static duke.Checks.expectEquals;
+import static duke.Checks.open;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import duke.exception.InvalidInputException;
+import duke.exception.SaveException;
+import duke.task.Deadline;
+import duke.task.ToDo;
+
+/**
+ * Checks of the journaled storage: every change survives reopening the list, and a log cut off or damaged anywhere
+ * (e.g. by a crash in the middle of an append) is loaded up to its last good record, then appended to again. A save
+ * interrupted between its renames is loaded, and the previous generation is only loaded in place of a
+ * save file which is damaged, never of one which is missing.
+ */
+public class JournalCheck {
+    protected static final int CHANGES = 60;
+    protected static final long SEED = 1;
+
+    /**
+     * Run all checks of the journaled storage
+     * @param args Not used
+     * @throws Exception This is thrown when a check cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        Path directory = Checks.createWorkDirectory("journal");
+        checkTruncation(directory.resolve("truncated.save").toString());
+        checkDamagedRecord(directory.resolve("damaged.save").toString());
+        checkUnappliedRecord(directory.resolve("unapplied.save").toString());
+        checkCompaction(directory.resolve("compacted.save").toString());
+        checkUnchangedNotRecorded(directory.resolve("unchanged.save").toString());
+        checkOtherStorages(directory.resolve("shared.save").toString());
+        checkInterruptedSave(directory.resolve("interrupted.save").toString());
+        checkPreviousGeneration(directory.resolve("previous.save").toString());
+    }
+
+    /**
+     * Cut the log at every byte, as a crash in the middle of an append would, and check each cut loads the changes
+     * of the records before it, and no more
+     */
+    protected static void checkTruncation(String filepath) throws Exception {
+        Path logPath = Path.of(filepath + Storage.LOG_SUFFIX);
+        List<Long> lengths = new ArrayList<>();
+        List<List<String>> states = new ArrayList<>();
+        JournalStorage storage = new JournalStorage(filepath);
+        TaskList tasks = open(storage);
+        Random random = new Random(SEED);
+        for (int i = 0; i < CHANGES; i += 1) {
+            change(tasks, random, i);
+            lengths.add(Files.size(logPath));
+            states.add(describe(tasks));
+        }
+        storage.close();
+
+        byte[] log = Files.readAllBytes(logPath);
+        for (int cut = 0; cut <= log.length; cut += 1) {
+            Files.write(logPath, Arrays.copyOf(log, cut));
+            // The last change whose record is complete within the cut, the first one being in the save file
+            int last = 0;
+            while (last + 1 < CHANGES && lengths.get(last + 1) <= cut) {
+                last += 1;
+            }
+            JournalStorage reopened = new JournalStorage(filepath);
+            TaskList loaded = reopened.load();
+            expectEquals(states.get(last), describe(loaded), "Tasks loaded from a log cut at " + cut);
+            expectEquals(Math.max(lengths.get(last), Long.BYTES + Integer.BYTES), Files.size(logPath),
+                    "Length of a log cut at " + cut + " once loaded");
+
+            loaded.addTask(new ToDo("after the cut"));
+            reopened.close();
+            List<String> expected = new ArrayList<>(states.get(last));
+            expected.add(new ToDo("after the cut").toString());
+            JournalStorage appended = new JournalStorage(filepath);
+            expectEquals(expected, describe(appended.load()), "Tasks appended to a log cut at " + cut);
+            appended.close();
+        }
+    }
+
+    /**
+     * Damage a record in the middle of the log, and check the changes before it are kept
+     */
+    protected static void checkDamagedRecord(String filepath) throws Exception {
+        Path logPath = Path.of(filepath + Storage.LOG_SUFFIX);
+        JournalStorage storage = new JournalStorage(filepath);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        List<String> expected = describe(tasks);
+        long goodLength = Files.size(logPath);
+        tasks.addTask(new ToDo("damaged"));
+        tasks.addTask(new ToDo("lost"));
+        storage.close();
+
+        byte[] log = Files.readAllBytes(logPath);
+        // A byte of the description of the damaged task, which its checksum no longer matches
+        log[(int) goodLength + 1 + Integer.BYTES * 2 + 4] ^= 0x5a;
+        Files.write(logPath, log);
+        JournalStorage reopened = new JournalStorage(filepath);
+        expectEquals(expected, describe(reopened.load()), "Tasks loaded from a log with a damaged record");
+        reopened.close();
+        expectEquals(goodLength, Files.size(logPath), "Length of a log with a damaged record once loaded");
+    }
+
+    /**
+     * Append a record which is intact but cannot be applied to the list, and check loading stops there instead of
+     * failing, so that the save file is never replaced by an empty list
+     */
+    protected static void checkUnappliedRecord(String filepath) throws Exception {
+        JournalStorage storage = new JournalStorage(filepath);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        List<String> expected = describe(tasks);
+        storage.append(tasks, Storage.OP_DELETE, 99, new byte[0]);
+        storage.append(tasks, Storage.OP_DELETE, 0, new byte[0]);
+        storage.close();
+
+        JournalStorage reopened = new JournalStorage(filepath);
+        TaskList loaded = reopened.load();
+        expectEquals(expected, describe(loaded), "Tasks loaded from a log with a record out of range");
+        loaded.deleteTask(0);
+        reopened.close();
+        JournalStorage changed = new JournalStorage(filepath);
+        expectEquals(expected.subList(1, 2), describe(changed.load()),
+                "Tasks loaded after changing a list with a record out of range");
+        changed.close();
+    }
+
+    /**
+     * Compact the list many times, and check no change is lost or replayed twice
+     */
+    protected static void checkCompaction(String filepath) throws Exception {
+        JournalStorage storage = new JournalStorage(filepath, 7);
+        TaskList tasks = open(storage);
+        Random random = new Random(SEED);
+        for (int i = 0; i < CHANGES; i += 1) {
+            change(tasks, random, i);
+            if (i % 5 == 0) {
+                JournalStorage reopened = new JournalStorage(filepath, 7);
+                expectEquals(describe(tasks), describe(reopened.load()), "Tasks loaded after change " + i);
+                reopened.close();
+            }
+        }
+        storage.close();
+        expect(storage.generation > 1, "The list has been compacted");
+        expectEquals(describe(tasks), describe(new Storage(filepath).load()), "Tasks loaded without the journal");
+    }
+
+    /**
+     * Mark tasks already done as done again, and check nothing is appended to the log
+     */
+    protected static void checkUnchangedNotRecorded(String filepath) throws Exception {
+        Path logPath = Path.of(filepath + Storage.LOG_SUFFIX);
+        JournalStorage storage = new JournalStorage(filepath);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        tasks.markTasksAsDone(new int[] {0, 1});
+        long length = Files.size(logPath);
+        expectEquals(tasks.get(0).toString(), tasks.markTaskAsDone(0).toString(), "Task marked as done again");
+        expectEquals(2, tasks.markTasksAsDone(new int[] {0, 1}).size(), "Tasks marked as done again");
+        expectEquals(length, Files.size(logPath), "Length of the log after marking tasks done again");
+        storage.close();
+    }
+
+    /**
+     * Switch between the journaled storage and the others, and check each of them sees every change exactly once
+     */
+    protected static void checkOtherStorages(String filepath) throws Exception {
+        List<String> expected = new ArrayList<>();
+        Storage[] storages = {
+            new JournalStorage(filepath), new Storage(filepath), new JournalStorage(filepath),
+            new AsyncStorage(filepath), new JournalStorage(filepath), new Storage(filepath)
+        };
+        for (int i = 0; i < storages.length; i += 1) {
+            Storage storage = storages[i];
+            TaskList tasks = open(storage);
+            expectEquals(expected, describe(tasks), "Tasks loaded by storage " + i);
+            tasks.addTask(new ToDo("task " + i));
+            if (i % 2 == 0) {
+                tasks.markTaskAsDone(0);
+            }
+            storage.close();
+            expected = describe(tasks);
+        }
+    }
+
+    /**
+     * Leave the save file as a crash between the two renames of a save does, and check the save is loaded with the
+     * records logged after it replayed, then taken over by the next save, while a temporary file cut off is not
+     * taken for one
+     */
+    protected static void checkInterruptedSave(String filepath) throws Exception {
+        Path path = Path.of(filepath);
+        Path temp = Path.of(filepath + Storage.TEMP_SUFFIX);
+        JournalStorage storage = new JournalStorage(filepath);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        storage.save(tasks);
+        tasks.addTask(new ToDo("logged after the save"));
+        storage.close();
+        Files.move(path, temp);
+
+        JournalStorage reopened = new JournalStorage(filepath);
+        TaskList loaded = reopened.load();
+        expectEquals(describe(tasks), describe(loaded), "Tasks loaded after an interrupted save");
+        loaded.addTask(new ToDo("added after loading"));
+        reopened.save(loaded);
+        reopened.close();
+        expect(Files.exists(path) && !Files.exists(temp), "The interrupted save is taken over by the next one");
+        expectEquals(describe(loaded), describe(new Storage(filepath).load()), "Tasks saved after an interrupted save");
+
+        byte[] save = Files.readAllBytes(path);
+        Files.delete(path);
+        Files.delete(Path.of(filepath + Storage.LOG_SUFFIX));
+        Files.write(temp, Arrays.copyOf(save, save.length - 1));
+        expectNoSave(new Storage(filepath), "A temporary file cut off");
+    }
+
+    /**
+     * Check the previous generation is loaded in place of a damaged save file, but not of a missing one
+     */
+    protected static void checkPreviousGeneration(String filepath) throws Exception {
+        Path path = Path.of(filepath);
+        Storage storage = new Storage(filepath);
+        TaskList tasks = open(storage);
+        tasks.addTask(new ToDo("a"));
+        List<String> previous = describe(tasks);
+        tasks.addTask(new ToDo("b"));
+        storage.close();
+        expect(Files.exists(Path.of(filepath + Storage.PREVIOUS_SUFFIX)), "The previous generation is kept");
+
+        byte[] save = Files.readAllBytes(path);
+        save[save.length - 1] ^= 0x5a;
+        Files.write(path, save);
+        expectEquals(previous, describe(new Storage(filepath).load()), "Tasks loaded from a damaged save file");
+        Files.delete(path);
+        expectNoSave(new Storage(filepath), "A missing save file");
+    }
+
+    protected static void expectNoSave(Storage storage, String message) throws IOException {
+        try {
+            storage.load();
+            expect(false, message + " is loaded");
+        } catch (SaveException e) {
+            // Nothing to load
+        }
+    }
+
+    /**
+     * Make a random change to the list through the methods recording it
+     */
+    protected static void change(TaskList tasks, Random random, int number)
+            throws IOException, SaveException, InvalidInputException {
+        int size = tasks.size();
+        int kind = size < 3 ? 0 : random.nextInt(8);
+        switch (kind) {
+        case 0:
+        case 1:
+        case 2:
+            tasks.addTask(new ToDo("task " + number));
+            break;
+        case 3:
+            tasks.addTask(new Deadline("deadline " + number, DateTime.ofEpochSecond(random.nextInt(1 << 30))));
+            break;
+        case 4:
+            tasks.setTask(random.nextInt(size), new ToDo("replaced " + number));
+            break;
+        case 5:
+            tasks.markTaskAsDone(random.nextInt(size));
+            break;
+        case 6:
+            tasks.deleteTask(random.nextInt(size));
+            break;
+        default:
+            int first = random.nextInt(size - 1);
+            int[] indexes = {first, first + 1};
+            if (random.nextBoolean()) {
+                tasks.markTasksAsDone(indexes);
+            } else {
+                tasks.deleteTasks(indexes);
+            }
+            break;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package duke;
+
+import static duke.Checks.expect;
+import static duke.Checks.expectEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import duke.reminder.ReminderScheduler;
+import duke.reminder.TimingWheel;
+import duke.reminder.TimingWheel.Timeout;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.ToDo;
+
+/**
+ * Checks of the reminders: the timing wheel expires every timeout at the tick a sorted list would, and the scheduler,
+ * driven by a clock moved by hand, reminds of each task at its lead times unless it is done, deleted or replaced.
+ */
+public class ReminderCheck {
+    protected static final int ROUNDS = 200;
+    protected static final int STEPS = 300;
+    protected static final long SEED = 1;
+    // Distances in ticks timeouts are scheduled at and the wheel is advanced by, so that every level is used
+    protected static final long[] SCHEDULE_RANGES = {50, 5000, 300000, 1L << 40};
+    protected static final long[] ADVANCE_STEPS = {1, 70, 5000, 400000, 1L << 38};
+
+    /**
+     * A clock which only moves when told to
+     */
+    protected static class ManualClock extends Clock {
+        protected Instant now;
+
+        protected ManualClock(LocalDateTime now) {
+            this.now = now.toInstant(ZoneOffset.UTC);
+        }
+
+        protected void advanceMinutes(long minutes) {
+            now = now.plusSeconds(minutes * 60);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /**
+     * Run all checks of the reminders
+     * @param args Not used
+     * @throws Exception This is thrown when a task cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        checkWheel();
+        checkScheduler();
+        checkManyReminders();
+    }
+
+    /**
+     * Schedule, cancel and expire random timeouts, and check each expires exactly when a sorted list says it should
+     */
+    protected static void checkWheel() {
+        Random random = new Random(SEED);
+        for (int round = 0; round < ROUNDS; round += 1) {
+            long now = random.nextInt(1 << 20);
+            TimingWheel<Long> wheel = new TimingWheel<>(now);
+            TreeMap<Long, List<Long>> expected = new TreeMap<>();
+            List<Timeout<Long>> scheduled = new ArrayList<>();
+            for (int step = 0; step < STEPS; step += 1) {
+                int kind = random.nextInt(10);
+                if (kind < 5) {
+                    // Some of them already due
+                    long range = SCHEDULE_RANGES[random.nextInt(SCHEDULE_RANGES.length)];
+                    long tick = now + (long) (random.nextDouble() * range) - 10;
+                    long payload = scheduled.size();
+                    scheduled.add(wheel.schedule(tick, payload));
+                    expected.computeIfAbsent(tick, key -> new ArrayList<>()).add(payload);
+                } else if (kind < 7 && !scheduled.isEmpty()) {
+                    Timeout<Long> timeout = scheduled.get(random.nextInt(scheduled.size()));
+                    List<Long> payloads = expected.get(timeout.getTick());
+                    boolean isPending = payloads != null && payloads.remove(timeout.getPayload());
+                    expectEquals(isPending, wheel.cancel(timeout), "Timeout cancelled in round " + round);
+                    if (payloads != null && payloads.isEmpty()) {
+                        expected.remove(timeout.getTick());
+                    }
+                } else {
+                    long tick = now + ADVANCE_STEPS[random.nextInt(ADVANCE_STEPS.length)];
+                    List<Long> expired = new ArrayList<>();
+                    wheel.advance(tick, expired::add);
+                    Map<Long, List<Long>> due = expected.headMap(tick, true);
+                    List<Long> expectedExpired = new ArrayList<>();
+                    due.values().forEach(expectedExpired::addAll);
+                    due.clear();
+                    Collections.sort(expired);
+                    Collections.sort(expectedExpired);
+                    expectEquals(expectedExpired, expired, "Timeouts expired in round " + round + " step " + step);
+                    now = tick;
+                }
+                int size = 0;
+                for (List<Long> payloads : expected.values()) {
+                    size += payloads.size();
+                }
+                expectEquals(size, wheel.size(), "Timeouts pending in round " + round + " step " + step);
+            }
+        }
+    }
+
+    /**
+     * Move the clock through an afternoon, and check which tasks are reminded of at each point
+     */
+    protected static void checkScheduler() throws Exception {
+        ManualClock clock = new ManualClock(LocalDateTime.of(2030, 3, 5, 16, 0));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui ui = new Ui('\t', 1, Ui.DEFAULT_LOCALE, new ByteArrayInputStream(new byte[0]),
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("taxes", new DateTime("05/03/2030 18:00")));
+        tasks.add(new Event("party", new DateTime("05/03/2030 17:30")));
+        tasks.add(new Event("lunch", new DateTime("05/03/2030 12:00")));
+        tasks.add(new ToDo("laundry"));
+        ReminderScheduler scheduler = new ReminderScheduler(tasks, ui, clock, new long[] {60, 0});
+        // Neither the event which has passed nor the task without a date
+        expectEquals(2, scheduler.size(), "Tasks to be reminded of at first");
+        tasks.add(new Deadline("report", new DateTime("06/03/2030 12:00")));
+        tasks.add(new Deadline("call", new DateTime("05/03/2030 20:00")));
+        expectEquals(4, scheduler.size(), "Tasks to be reminded of once added");
+
+        expectEquals(0, scheduler.poll(), "Reminders at 16:00");
+        clock.advanceMinutes(30);
+        expectEquals(1, scheduler.poll(), "Reminders at 16:30 (party in an hour)");
+        expect(output.toString(StandardCharsets.UTF_8).contains("party"), "The party is reminded of");
+        expectEquals(0, scheduler.poll(), "Reminders at 16:30 again");
+
+        tasks.markAsDone(0);
+        tasks.remove(tasks.size() - 1);
+        expectEquals(2, scheduler.size(), "Tasks to be reminded of once one is done and one deleted");
+        clock.advanceMinutes(60);
+        expectEquals(1, scheduler.poll(), "Reminders at 17:30 (party now, not the taxes done)");
+
+        // Moved from the next day to this evening
+        tasks.set(tasks.size() - 1, new Deadline("report", new DateTime("05/03/2030 19:00")));
+        clock.advanceMinutes(30);
+        expectEquals(1, scheduler.poll(), "Reminders at 18:00 (report in an hour)");
+        output.reset();
+        clock.advanceMinutes(60 * 24);
+        expectEquals(1, scheduler.poll(), "Reminders a day later (report, late)");
+        expect(output.toString(StandardCharsets.UTF_8).contains("report"), "The report is reminded of");
+        expectEquals(0, scheduler.size(), "Tasks to be reminded of in the end");
+        scheduler.close();
+    }
+
+    /**
+     * Schedule many reminders over a year, and check each of them is given exactly once however far the clock jumps
+     */
+    protected static void checkManyReminders() throws Exception {
+        Random random = new Random(SEED);
+        ManualClock clock = new ManualClock(LocalDateTime.of(2030, 1, 1, 0, 0));
+        Ui ui = new Ui('\t', 1, Ui.DEFAULT_LOCALE, new ByteArrayInputStream(new byte[0]),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        TaskList tasks = new TaskList();
+        ReminderScheduler scheduler = new ReminderScheduler(tasks, ui, clock, new long[] {1440, 60, 0});
+        long start = clock.instant().getEpochSecond();
+        int count = 100_000;
+        for (int i = 0; i < count; i += 1) {
+            // Far enough for all three reminders to come
+            long second = start + 2 * 86400 + random.nextInt(365 * 86400);
+            tasks.add(new Deadline("task " + i, DateTime.ofEpochSecond(second)));
+        }
+        expectEquals(count, scheduler.size(), "Tasks to be reminded of");
+
+        // Polled at random days, skipping some of the reminders of the tasks due in between
+        int reminded = 0;
+        for (int i = 0; i < 20; i += 1) {
+            clock.advanceMinutes(60 * 24 * (1 + random.nextInt(30)));
+            reminded += scheduler.poll();
+        }
+        clock.advanceMinutes(60 * 24 * 400);
+        reminded += scheduler.poll();
+        expect(reminded >= count && reminded <= count * 3, "Reminders given: " + reminded);
+        expectEquals(0, scheduler.size(), "Tasks to be reminded of in the end");
+        scheduler.close();
+    }
+}
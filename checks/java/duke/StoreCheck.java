@@ -0,0 +1,297 @@
+package duke;
+
+import static duke.Checks.expect;
+import static duke.Checks.expectEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import duke.store.ChunkedTaskStore;
+import duke.store.ColumnarTaskStore;
+import duke.store.TaskStore;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * Check of the task stores against an array list: after every random change, each store holds the same tasks with
+ * the same ids, finds them by id (and no longer finds those removed), and iterates through any window of them the
+ * same way. Lists start empty or from a mapped save file, and are grown and cut down enough to be compacted.
+ */
+public class StoreCheck {
+    protected static final int ROUNDS = 16;
+    protected static final int CHANGES = 250;
+    protected static final int MAX_INITIAL_SIZE = 3000;
+    protected static final long SEED = 1;
+
+    /**
+     * A task of the list kept by the check, with what the store is expected to know about it
+     */
+    protected static class Entry {
+        protected long id;
+        // A copy of the task, which the store cannot change
+        protected Task task;
+        protected String text;
+        // Number of the task in the mapped save file, -1 if it did not come from there
+        protected int record;
+
+        protected Entry(long id, Task task, int record) throws Exception {
+            this.id = id;
+            this.task = copy(task);
+            this.text = task.toString();
+            this.record = record;
+        }
+    }
+
+    /**
+     * A chunked store counting how many times it has been compacted
+     */
+    protected static class CountingChunkedStore extends ChunkedTaskStore {
+        protected int compactions = 0;
+
+        @Override
+        protected void compact() {
+            compactions += 1;
+            super.compact();
+        }
+    }
+
+    /**
+     * A columnar store counting how many times its arena has been compacted
+     */
+    protected static class CountingColumnarStore extends ColumnarTaskStore {
+        protected int compactions = 0;
+
+        @Override
+        protected void compactIfNeeded() {
+            int garbage = arenaGarbage;
+            super.compactIfNeeded();
+            if (garbage > 0 && arenaGarbage == 0) {
+                compactions += 1;
+            }
+        }
+    }
+
+    /**
+     * Run the check on both kinds of stores
+     * @param args Not used
+     * @throws Exception This is thrown when a task cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(SEED);
+        int chunkedCompactions = 0;
+        int columnarCompactions = 0;
+        for (int round = 0; round < ROUNDS; round += 1) {
+            boolean isChunked = round % 2 == 0;
+            CountingChunkedStore chunked = new CountingChunkedStore();
+            CountingColumnarStore columnar = new CountingColumnarStore();
+            TaskStore store = isChunked ? chunked : columnar;
+            List<Entry> expected = new ArrayList<>();
+            if (random.nextBoolean()) {
+                setSource(store, expected, random);
+            }
+            List<Long> removedIds = new ArrayList<>();
+            String context = (isChunked ? "chunked" : "columnar") + " store in round " + round;
+            checkContent(store, expected, removedIds, random, context + " at first");
+            for (int i = 0; i < CHANGES; i += 1) {
+                change(store, expected, removedIds, random);
+                checkContent(store, expected, removedIds, random, context + " after change " + i);
+            }
+            chunkedCompactions += chunked.compactions;
+            columnarCompactions += columnar.compactions;
+        }
+        expect(chunkedCompactions > 0, "The chunked stores have been compacted");
+        expect(columnarCompactions > 0, "The columnar stores have been compacted");
+    }
+
+    /**
+     * Fill the store from a save file of random tasks, mapped from memory instead of a file
+     */
+    protected static void setSource(TaskStore store, List<Entry> expected, Random random) throws Exception {
+        TaskList tasks = new TaskList();
+        int size = random.nextInt(MAX_INITIAL_SIZE);
+        for (int i = 0; i < size; i += 1) {
+            Task task = createTask(random);
+            tasks.add(task);
+            expected.add(new Entry(i, task, i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Storage("unused.save").writeSnapshot(new DataOutputStream(bytes), tasks);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        int footerOffset = buffer.capacity() - Storage.FOOTER_SIZE;
+        store.setSource(new MappedTaskSource(buffer, buffer.getInt(footerOffset + Integer.BYTES), size));
+    }
+
+    /**
+     * Make a random change to the store and to the expected list alike, sometimes many tasks at once
+     */
+    protected static void change(TaskStore store, List<Entry> expected, List<Long> removedIds, Random random)
+            throws Exception {
+        int size = expected.size();
+        int kind = size < 2 ? 0 : random.nextInt(12);
+        switch (kind) {
+        case 0:
+        case 1:
+        case 2:
+            int count = random.nextInt(8) == 0 ? random.nextInt(MAX_INITIAL_SIZE) : 1;
+            for (int i = 0; i < count; i += 1) {
+                Task task = createTask(random);
+                long id = store.add(task);
+                expect(expected.isEmpty() || id > expected.get(expected.size() - 1).id, "Id of a task appended");
+                expected.add(new Entry(id, task, -1));
+            }
+            break;
+        case 3:
+        case 4:
+            int index = random.nextInt(size);
+            Task task = createTask(random);
+            Entry replaced = expected.get(index);
+            expectEquals(replaced.text, store.set(index, task).toString(), "Task replaced");
+            expected.set(index, new Entry(replaced.id, task, -1));
+            break;
+        case 5:
+        case 6:
+            index = random.nextInt(size);
+            Entry entry = expected.get(index);
+            Task done = copy(entry.task);
+            done.markAsDone();
+            expectEquals(done.toString(), store.markAsDone(index).toString(), "Task marked as done");
+            expected.set(index, new Entry(entry.id, done, -1));
+            break;
+        case 7:
+        case 8:
+            index = random.nextInt(size);
+            Entry removed = expected.remove(index);
+            expectEquals(removed.text, store.remove(index).toString(), "Task removed");
+            removedIds.add(removed.id);
+            break;
+        default:
+            // Mostly a few tasks, sometimes most of them so that dead slots and unused bytes pile up
+            double share = random.nextInt(3) == 0 ? 0.5 + random.nextDouble() / 2 : random.nextDouble() / 10;
+            int[] indexes = pickIndexes(size, share, random);
+            List<Task> removedTasks = store.removeAll(indexes);
+            expectEquals(indexes.length, removedTasks.size(), "Number of tasks removed at once");
+            for (int i = indexes.length - 1; i >= 0; i -= 1) {
+                Entry removedEntry = expected.remove(indexes[i]);
+                expectEquals(removedEntry.text, removedTasks.get(i).toString(), "Task removed at once");
+                removedIds.add(removedEntry.id);
+            }
+            break;
+        }
+    }
+
+    /**
+     * Check the store holds the expected tasks with their ids, finds them by id, and iterates through them in random
+     * windows the same way. All tasks are only read now and then, so that tasks of a mapped save file stay undecoded
+     * through many changes.
+     */
+    protected static void checkContent(TaskStore store, List<Entry> expected, List<Long> removedIds, Random random,
+            String context) {
+        int size = expected.size();
+        expectEquals(size, store.size(), "Size of the " + context);
+        for (int i = 0; i < size; i += 1) {
+            Entry entry = expected.get(i);
+            int record = store.getUndecodedRecord(i);
+            expect(record == -1 || record == entry.record, "Record of task " + i + " of the " + context);
+            expectEquals(entry.id, store.getId(i), "Id of task " + i + " of the " + context);
+        }
+
+        for (int i = 0; i < 5 && size > 0; i += 1) {
+            Entry entry = expected.get(random.nextInt(size));
+            Task task = store.getById(entry.id);
+            expectEquals(entry.text, task == null ? null : task.toString(), "Task by id of the " + context);
+        }
+        for (int i = 0; i < 5 && !removedIds.isEmpty(); i += 1) {
+            long id = removedIds.get(random.nextInt(removedIds.size()));
+            expect(store.getById(id) == null, "Task removed found by id " + id + " in the " + context);
+        }
+
+        // Windows may go past the end of the store, where the iteration stops
+        for (int i = 0; i < 3; i += 1) {
+            int from = random.nextInt(size + 1);
+            int to = from + random.nextInt(40);
+            List<String> window = new ArrayList<>();
+            for (Iterator<Task> iterator = store.iterator(from, to); iterator.hasNext(); ) {
+                window.add(iterator.next().toString());
+            }
+            List<String> expectedWindow = new ArrayList<>();
+            for (Entry entry : expected.subList(from, Math.min(to, size))) {
+                expectedWindow.add(entry.text);
+            }
+            expectEquals(expectedWindow, window, "Tasks from " + from + " to " + to + " of the " + context);
+        }
+
+        if (random.nextInt(20) > 0) {
+            return;
+        }
+        List<String> texts = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        store.forEach((id, task) -> {
+            ids.add(id);
+            texts.add(task.toString());
+        });
+        List<String> expectedTexts = new ArrayList<>();
+        List<Long> expectedIds = new ArrayList<>();
+        for (Entry entry : expected) {
+            expectedTexts.add(entry.text);
+            expectedIds.add(entry.id);
+        }
+        expectEquals(expectedIds, ids, "Ids visited in the " + context);
+        expectEquals(expectedTexts, texts, "Tasks visited in the " + context);
+        expect(!store.hasUndecoded(), "Every task of the " + context + " is decoded once visited");
+        for (int i = 0; i < size; i += 1) {
+            expectEquals(expectedTexts.get(i), store.get(i).toString(), "Task " + i + " of the " + context);
+        }
+    }
+
+    /**
+     * Pick about a share of the positions of a list, in increasing order
+     */
+    protected static int[] pickIndexes(int size, double share, Random random) {
+        int[] indexes = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i += 1) {
+            if (random.nextDouble() < share) {
+                indexes[count] = i;
+                count += 1;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Copy a task by encoding and decoding it, as a save file would
+     */
+    protected static Task copy(Task task) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskCodec.writeTask(new DataOutputStream(bytes), task);
+        return TaskCodec.readTask(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    protected static Task createTask(Random random) throws Exception {
+        // Long enough descriptions for the unused bytes of a columnar store to reach its compaction threshold
+        StringBuilder description = new StringBuilder("task");
+        int length = random.nextInt(120);
+        for (int i = 0; i < length; i += 1) {
+            description.append((char) ('a' + random.nextInt(26)));
+        }
+        DateTime dateTime = DateTime.ofEpochSecond(random.nextInt(1 << 30));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Deadline(description.toString(), dateTime);
+        case 1:
+            return new Event(description.toString(), dateTime);
+        default:
+            return new ToDo(description.toString());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compile the program together with the checks, then run every check (or those named as arguments, e.g. JournalCheck)
+# Each check is a program which exits with an error as soon as something is wrong
+cd $(dirname "$0")
+
+# create bin directory if it doesn't exist
+if [ ! -d "../bin" ]
+then
+    mkdir ../bin
+fi
+
+# compile the code and the checks into the bin folder, terminates if error occurred
+find ../src/main/java java -name "*.java" > sources.txt
+if ! javac -encoding UTF-8 -Xlint:none -d ../bin @sources.txt
+then
+    rm sources.txt
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+rm sources.txt
+
+if [ $# -gt 0 ]
+then
+    checks="$*"
+else
+    checks=$(find java -name "*Check.java" -exec basename {} .java \; | sort)
+fi
+
+failed=0
+for check in $checks
+do
+    if java -classpath ../bin "duke.$check"
+    then
+        echo "$check: PASSED"
+    else
+        echo "$check: FAILED"
+        failed=1
+    fi
+done
+
+if [ $failed -eq 0 ]
+then
+    echo "Check result: PASSED"
+    exit 0
+else
+    echo "Check result: FAILED"
+    exit 1
+fi
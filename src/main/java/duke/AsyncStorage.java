@@ -0,0 +1,246 @@
+package duke;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import duke.exception.SaveException;
+import duke.task.Task;
+
+/**
+ * A storage which writes the task list in a background thread, so that commands do not wait for the disk.
+ * A change only marks the list as dirty. The writer waits until the oldest unwritten change is as old as the
+ * maximum staleness, then writes all changes made so far with a single snapshot.
+ *
+ * close() writes whatever is still pending before returning, and is also run when the JVM shuts down.
+ * An error met by the writer is thrown by the next change recorded, or by close(). The list stays dirty after such
+ * an error, so that it is written again after the maximum staleness, or by close().
+ */
+public class AsyncStorage extends Storage {
+    public static final long DEFAULT_MAX_STALENESS = 1000;
+
+    protected long maxStaleness;
+
+    // Guards all attributes below, and is notified whenever one of them changes
+    protected final Object lock = new Object();
+    // List with changes which have not been written yet, null when everything has been written
+    protected TaskList dirtyTasks;
+    protected long dirtySince;
+    protected Exception failure;
+    protected Thread writer;
+    // Closes the storage when the JVM shuts down, registered along with the writer and removed by close()
+    protected Thread shutdownHook;
+    protected boolean isClosed = false;
+
+    // Held during a write, so that the writer and save() never write the file at the same time
+    protected final Object writeLock = new Object();
+
+    /**
+     * Construct an asynchronous storage with the default maximum staleness
+     * @param filepath Filepath of the save file
+     */
+    public AsyncStorage(String filepath) {
+        this(filepath, DEFAULT_MAX_STALENESS);
+    }
+
+    /**
+     * Construct an asynchronous storage
+     * @param filepath Filepath of the save file
+     * @param maxStaleness Longest time in milliseconds a change may wait before it is written
+     */
+    public AsyncStorage(String filepath, long maxStaleness) {
+        super(filepath);
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Save the task list right away, in the calling thread
+     * @param tasks Task list to be saved
+     * @throws IOException This is thrown when file writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    @Override
+    public void save(TaskList tasks) throws IOException, SaveException {
+        synchronized (lock) {
+            dirtyTasks = null;
+        }
+        write(tasks);
+    }
+
+    @Override
+    public void recordAdd(TaskList tasks, Task task) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    @Override
+    public void recordSet(TaskList tasks, int index, Task task) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    @Override
+    public void recordDone(TaskList tasks, int index) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    @Override
+    public void recordDelete(TaskList tasks, int index) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    @Override
+    public void recordDoneAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    @Override
+    public void recordDeleteAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        markDirty(tasks);
+    }
+
+    /**
+     * Write all pending changes, then stop the writer
+     * The shutdown hook is removed as well, so that the JVM does not keep a closed storage (and its list) alive.
+     * @throws IOException This is thrown when the writer has failed to write the file
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        Thread hook;
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+            thread = writer;
+            hook = shutdownHook;
+            shutdownHook = null;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (hook != null && hook != Thread.currentThread()) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down, and the hook is running or about to run
+            }
+        }
+        try {
+            throwFailure();
+        } catch (SaveException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Mark the list as dirty, so that the writer will write it before the maximum staleness is reached
+     */
+    protected void markDirty(TaskList tasks) throws IOException, SaveException {
+        synchronized (lock) {
+            if (isClosed) {
+                // Nobody is going to write it later
+                write(tasks);
+                throwFailure();
+                return;
+            }
+            if (dirtyTasks == null) {
+                dirtyTasks = tasks;
+                dirtySince = System.currentTimeMillis();
+                lock.notifyAll();
+            }
+            if (writer == null) {
+                writer = new Thread(this::runWriter, "duke-storage-writer");
+                writer.setDaemon(true);
+                writer.start();
+                shutdownHook = new Thread(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        // Nowhere left to report it
+                    }
+                }, "duke-storage-shutdown");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+            // Only once the change is marked, so that the writer (or close()) still writes it after the error
+            throwFailure();
+        }
+    }
+
+    /**
+     * Throw the error met by the writer, if there is one, and forget it
+     */
+    protected void throwFailure() throws IOException, SaveException {
+        synchronized (lock) {
+            Exception e = failure;
+            failure = null;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else if (e instanceof SaveException) {
+                throw (SaveException) e;
+            } else if (e != null) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Main loop of the writer thread
+     */
+    protected void runWriter() {
+        while (true) {
+            TaskList tasks;
+            synchronized (lock) {
+                try {
+                    while (dirtyTasks == null && !isClosed) {
+                        lock.wait();
+                    }
+                    // Let more changes pile up until the oldest one is about to become too stale
+                    long delay = dirtySince + maxStaleness - System.currentTimeMillis();
+                    while (dirtyTasks != null && !isClosed && delay > 0) {
+                        lock.wait(delay);
+                        delay = dirtySince + maxStaleness - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    isClosed = true;
+                }
+                if (dirtyTasks == null) {
+                    // Either closed with nothing left to write, or everything has just been written by save()
+                    if (isClosed) {
+                        return;
+                    }
+                    continue;
+                }
+                tasks = dirtyTasks;
+                dirtyTasks = null;
+            }
+
+            try {
+                write(tasks);
+            } catch (Exception e) {
+                synchronized (lock) {
+                    failure = e;
+                    if (dirtyTasks == null && !isClosed) {
+                        // Written again later, so that the changes are not lost once the cause is gone
+                        dirtyTasks = tasks;
+                        dirtySince = System.currentTimeMillis();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode the list while holding its monitor, then write the save file without holding it
+     */
+    protected void write(TaskList tasks) throws IOException, SaveException {
+        synchronized (writeLock) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            synchronized (tasks) {
+                writeSnapshot(new DataOutputStream(bytes), tasks);
+            }
+            writeSaveFile(bytes::writeTo);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package duke;
 
 import java.io.Serializable;
-import java.time.LocalDate;
+import java.text.ParsePosition;
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
 
 /**
  * A wrapper class for LocalDateTime, used for storing and formatting of dates and times
@@ -19,22 +21,150 @@ public class DateTime implements Serializable {
     protected static String datePattern = "dd/MM/yyyy";
     protected static String timePattern = "HH:mm";
 
+    // Formatters built from the patterns above, rebuilt only when the patterns are changed
+    protected static DateTimeFormatter formatter;
+    protected static DateTimeFormatter dateFormatter;
+    protected static DateTimeFormatter parser;
+    // Increased every time the patterns are changed, so that strings formatted with old patterns can be detected
+    protected static volatile int patternVersion = 0;
+
+    static {
+        buildFormatters();
+    }
+
     protected LocalDateTime dateTime;
+    // Whether only a date was given when parsing, so that the time is the default one
+    protected transient boolean isDateOnly = false;
+
+    // Cache of toString(), valid as long as `formattedVersion` is the current pattern version
+    protected transient String formatted;
+    protected transient int formattedVersion;
 
     /**
      * Construct a dateTime object with a string. The string must be following the
      * format given in datePattern and timePattern attribute of this class.
+     * When only a date is given, time is set at 12 PM noon.
      * @param dateTimeString A string contain the date (and time) to be parsed
+     * @throws java.time.format.DateTimeParseException This is thrown when the string cannot be parsed
      */
     public DateTime(String dateTimeString) {
+        dateTime = LocalDateTime.parse(dateTimeString, parser);
+        ParsePosition position = new ParsePosition(0);
+        isDateOnly = dateFormatter.parseUnresolved(dateTimeString, position) != null
+                && position.getIndex() == dateTimeString.length();
+    }
+
+    /**
+     * Change the patterns used for parsing and formatting all dateTime objects
+     * @param datePattern Pattern of the date, as accepted by DateTimeFormatter.ofPattern()
+     * @param timePattern Pattern of the time, as accepted by DateTimeFormatter.ofPattern()
+     * @throws IllegalArgumentException This is thrown when either pattern is invalid
+     */
+    public static synchronized void setPatterns(String datePattern, String timePattern) {
+        String oldDatePattern = DateTime.datePattern;
+        String oldTimePattern = DateTime.timePattern;
+        DateTime.datePattern = datePattern;
+        DateTime.timePattern = timePattern;
         try {
-            dateTime =
-                    LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern(datePattern + " " + timePattern));
-        } catch (DateTimeParseException e) {
-            // Fail to parse a datetime - try to parse a date (with time set at 12 PM noon)
-            LocalDate date = LocalDate.parse(dateTimeString, DateTimeFormatter.ofPattern(datePattern));
-            dateTime = LocalDateTime.of(date, LocalTime.parse("12:00"));
+            buildFormatters();
+        } catch (IllegalArgumentException e) {
+            DateTime.datePattern = oldDatePattern;
+            DateTime.timePattern = oldTimePattern;
+            throw e;
         }
+        patternVersion += 1;
+    }
+
+    /**
+     * Get the version of the patterns, which changes every time the patterns are changed
+     * @return The current pattern version
+     */
+    public static int getPatternVersion() {
+        return patternVersion;
+    }
+
+    protected static void buildFormatters() {
+        DateTimeFormatter newFormatter = DateTimeFormatter.ofPattern(datePattern + " " + timePattern);
+        DateTimeFormatter newDateFormatter = DateTimeFormatter.ofPattern(datePattern);
+        // The time is optional when parsing, so a date-only string does not need a second attempt
+        DateTimeFormatter newParser = new DateTimeFormatterBuilder()
+                .appendPattern(datePattern)
+                .optionalStart()
+                .appendLiteral(' ')
+                .appendPattern(timePattern)
+                .optionalEnd()
+                .parseDefaulting(ChronoField.HOUR_OF_DAY, 12)
+                .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                .toFormatter();
+        formatter = newFormatter;
+        dateFormatter = newDateFormatter;
+        parser = newParser;
+    }
+
+    /**
+     * Construct a dateTime object wrapping the given LocalDateTime
+     * @param dateTime The LocalDateTime to be wrapped
+     */
+    protected DateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    /**
+     * Construct a dateTime object from the number of seconds since 1970-01-01 00:00
+     * @param epochSecond Seconds since epoch, as returned by toEpochSecond()
+     * @return The dateTime object constructed
+     */
+    public static DateTime ofEpochSecond(long epochSecond) {
+        return new DateTime(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Construct a dateTime object of the current local date and time, to the second
+     * @return The dateTime object constructed
+     */
+    public static DateTime now() {
+        return now(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Construct a dateTime object of the current local date and time given by a clock, to the second
+     * @param clock The clock to read, whose zone gives the local time
+     * @return The dateTime object constructed
+     */
+    public static DateTime now(Clock clock) {
+        return new DateTime(LocalDateTime.now(clock).withNano(0));
+    }
+
+    /**
+     * Get the number of seconds since 1970-01-01 00:00, treating this dateTime as a local time without zone
+     * @return Seconds since epoch
+     */
+    public long toEpochSecond() {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Get the number of days since 1970-01-01 of the date of this dateTime
+     * @return Days since epoch
+     */
+    public long toEpochDay() {
+        return dateTime.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Check whether this dateTime has a time given, rather than the default time of a date given alone
+     * @return False if only a date was given when parsing, true otherwise
+     */
+    public boolean hasTime() {
+        return !isDateOnly;
+    }
+
+    /**
+     * Format the date of this dateTime instance to a string, using format defined in datePattern
+     * @return The formatted date
+     */
+    public String toDateString() {
+        return dateTime.format(dateFormatter);
     }
 
     /**
@@ -51,6 +181,13 @@ public class DateTime implements Serializable {
      */
     @Override
     public String toString() {
-        return dateTime.format(DateTimeFormatter.ofPattern(datePattern + " " + timePattern));
+        int version = patternVersion;
+        String result = formatted;
+        if (result == null || formattedVersion != version) {
+            result = dateTime.format(formatter);
+            formatted = result;
+            formattedVersion = version;
+        }
+        return result;
     }
 }
@@ -1,6 +1,20 @@
 package duke;
 
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 import duke.command.Command;
+import duke.metrics.CommandSample;
+import duke.metrics.CommandSample.Phase;
+import duke.metrics.Metrics;
+import duke.reminder.ReminderScheduler;
+import duke.server.DukeServer;
+import duke.server.TenantPool;
+import duke.store.ColumnarTaskStore;
 
 /**
  * Main class of the program with the entry function
@@ -8,18 +22,51 @@ import duke.command.Command;
 public class Duke {
     public static final String DEFAULT_SAVE_PATH = "duke.save";
 
+    // Command line option for recording changes into an append-only log
+    public static final String JOURNAL_OPTION = "--journal";
+    // Command line option for writing the save file in background, optionally followed by the maximum staleness
+    public static final String ASYNC_OPTION = "--async";
+    // Command line option for the locale of the messages, followed by its name
+    public static final String LOCALE_OPTION = "--locale";
+    // Command line option for keeping the tasks in primitive columns, trading access speed for memory
+    public static final String COLUMNAR_OPTION = "--columnar";
+    // Command line option for running all commands of a file in a single transaction, followed by its path
+    public static final String BATCH_OPTION = "--batch";
+    // Command line option for serving clients over a socket instead of the console, followed by its address
+    public static final String SERVER_OPTION = "--server";
+    // Command line option for letting --server listen at a TCP address other than loopback, open to any host
+    public static final String PUBLIC_OPTION = "--public";
+    // Command line option for serving a task list per user, saved in the directory following it (needs --server)
+    public static final String TENANTS_OPTION = "--tenants";
+    // Command line option for the memory in megabytes the lists of users may take, before they are evicted
+    public static final String MEMORY_BUDGET_OPTION = "--memory-budget";
+    // Command line option for measuring the latency and allocation of every command, shown by the stats command
+    public static final String METRICS_OPTION = "--metrics";
+    // Command line option for reminding of deadlines and events, optionally followed by the minutes before them
+    public static final String REMIND_OPTION = "--remind";
+
     protected TaskList tasks;
+    protected Storage storage;
     protected Ui ui;
     protected Parser parser;
+    protected ReminderScheduler reminders;
 
     protected Duke(String filepath) {
-        ui = new Ui();
-        Storage storage = new Storage(filepath);
+        this(new Storage(filepath), filepath);
+    }
+
+    protected Duke(Storage storage, String filepath) {
+        this(storage, filepath, new Ui());
+    }
+
+    protected Duke(Storage storage, String filepath, Ui ui) {
+        this.ui = ui;
+        this.storage = storage;
         try {
             tasks = storage.load();
         } catch (Exception e) {
             ui.printSaveException(filepath, e);
-            tasks = new TaskList(storage);
+            tasks = storage.createTaskList();
         }
         parser = new Parser(ui, tasks);
     }
@@ -33,9 +80,12 @@ public class Duke {
                 // Reach EOF, exit the program
                 break;
             }
+            CommandSample sample = Metrics.startSample();
             ui.printLine();
+            Command cmd = null;
             try {
-                Command cmd = parser.parse(fullCommand);
+                cmd = parser.parse(fullCommand);
+                Metrics.enter(sample, Phase.EXECUTE);
                 cmd.execute();
                 if (cmd.isExit()) {
                     break;
@@ -43,11 +93,160 @@ public class Duke {
             } catch (Exception e) {
                 ui.printException(e);
             } finally {
+                Metrics.enter(sample, Phase.RENDER);
                 ui.printLine();
+                // Write out the whole response of this command at once
+                ui.flush();
+                Metrics.finish(sample, cmd);
             }
         }
 
-        // Close Ui instance to release resources (such as Scanner instance)
+        if (tasks.isInTransaction()) {
+            // Changes of a batch which has not been committed are never saved
+            ui.printLine();
+            ui.printTransactionRolledBack(tasks.rollback());
+            ui.printLine();
+        }
+        close();
+    }
+
+    /**
+     * Start reminding of the deadlines and events in the list while commands are run from the console
+     * @param leadMinutes Minutes before a task is due at which it is reminded of, 0 for when it is due
+     */
+    protected void startReminders(long[] leadMinutes) {
+        reminders = new ReminderScheduler(tasks, ui, Clock.systemDefaultZone(), leadMinutes);
+        reminders.start();
+    }
+
+    /**
+     * Run all commands of a file in a single transaction, which is committed (saving the list once) after the last
+     * command, or rolled back as soon as a command fails
+     * @param batchpath Path of the file, holding one command per line
+     * @return Whether all commands have succeeded and the changes have been saved
+     */
+    protected boolean runBatch(String batchpath) {
+        boolean isSuccessful = false;
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(batchpath))) {
+            tasks.begin();
+            String fullCommand;
+            while ((fullCommand = in.readLine()) != null) {
+                CommandSample sample = Metrics.startSample();
+                ui.printLine();
+                Command cmd = parser.parse(fullCommand);
+                Metrics.enter(sample, Phase.EXECUTE);
+                cmd.execute();
+                Metrics.enter(sample, Phase.RENDER);
+                ui.printLine();
+                ui.flush();
+                Metrics.finish(sample, cmd);
+                if (cmd.isExit()) {
+                    break;
+                }
+            }
+            ui.printLine();
+            ui.printTransactionCommitted(tasks.commit());
+            isSuccessful = true;
+        } catch (Exception e) {
+            ui.printException(e);
+            if (tasks.isInTransaction()) {
+                ui.printTransactionRolledBack(tasks.rollback());
+            }
+        } finally {
+            ui.printLine();
+        }
+        close();
+        return isSuccessful;
+    }
+
+    /**
+     * Serve the task list to clients connecting to a socket, until the process is stopped
+     * @param address Address of the socket, as accepted by DukeServer.parseAddress()
+     * @param isPublic Whether the socket may be on an interface other than loopback
+     * @param locale Locale of the messages sent to the clients
+     * @see DukeServer
+     */
+    protected void runServer(String address, boolean isPublic, String locale) {
+        try (DukeServer server = new DukeServer(tasks, locale)) {
+            server.serve(DukeServer.parseAddress(address, isPublic));
+        } catch (Exception e) {
+            ui.printException(e);
+        }
+        close();
+    }
+
+    /**
+     * Serve the task list of each user to clients connecting to a socket, until the process is stopped
+     * @param address Address of the socket, as accepted by DukeServer.parseAddress()
+     * @param isPublic Whether the socket may be on an interface other than loopback
+     * @param pool The pool holding the task list of each user
+     * @param locale Locale of the messages sent to the clients
+     * @param ui Ui instance for reporting errors of the server
+     * @see TenantPool
+     */
+    protected static void runTenantServer(String address, boolean isPublic, TenantPool pool, String locale, Ui ui) {
+        try (DukeServer server = new DukeServer(pool, locale)) {
+            if (address == null) {
+                throw new IllegalArgumentException(TENANTS_OPTION + " can only be used with " + SERVER_OPTION);
+            }
+            server.serve(DukeServer.parseAddress(address, isPublic));
+        } catch (Exception e) {
+            ui.printException(e);
+        }
+        ui.close();
+    }
+
+    /**
+     * Create the factory of the storage handlers, given the path of a save file
+     * @param isJournaled Whether changes are recorded into an append-only log
+     * @param isAsync Whether the save file is written in background
+     * @param maxStaleness Longest time in milliseconds a change may wait before it is written in background
+     * @param isColumnar Whether tasks are kept in primitive columns
+     * @return The factory of the storage handlers
+     * @throws IllegalArgumentException This is thrown when both journaled and asynchronous storages are asked for
+     */
+    protected static Function<String, Storage> createStorageFactory(boolean isJournaled, boolean isAsync,
+            long maxStaleness, boolean isColumnar) {
+        if (isJournaled && isAsync) {
+            // A journaled storage syncs every change, which is exactly what an asynchronous one avoids
+            throw new IllegalArgumentException(JOURNAL_OPTION + " cannot be used with " + ASYNC_OPTION);
+        }
+        return filepath -> {
+            Storage storage;
+            if (isJournaled) {
+                storage = new JournalStorage(filepath);
+            } else if (isAsync) {
+                storage = new AsyncStorage(filepath, maxStaleness);
+            } else {
+                storage = new Storage(filepath);
+            }
+            if (isColumnar) {
+                storage.setStoreFactory(ColumnarTaskStore::new);
+            }
+            return storage;
+        };
+    }
+
+    /**
+     * Close storage and Ui instance to release resources (such as log file and Scanner instance)
+     * Batched subscribers of the task list are given their last changes before the storage is closed.
+     */
+    protected void close() {
+        if (reminders != null) {
+            reminders.close();
+        }
+        if (tasks != null) {
+            try {
+                tasks.getEvents().close();
+            } catch (RuntimeException e) {
+                ui.printException(e);
+            }
+        }
+        try {
+            storage.close();
+        } catch (Exception e) {
+            ui.printException(e);
+        }
         ui.close();
     }
 
@@ -57,10 +256,85 @@ public class Duke {
      */
     public static void main(String[] args) {
         String filepath = DEFAULT_SAVE_PATH;
-        if (args.length > 0) {
-            // If additional argument is provided, take 1st argument as the save filepath
-            filepath = args[0];
+        boolean isJournaled = false;
+        boolean isAsync = false;
+        boolean isColumnar = false;
+        String batchpath = null;
+        String serverAddress = null;
+        boolean isPublic = false;
+        String tenantDirectory = null;
+        long memoryBudget = TenantPool.DEFAULT_MEMORY_BUDGET;
+        long maxStaleness = AsyncStorage.DEFAULT_MAX_STALENESS;
+        String locale = Ui.DEFAULT_LOCALE;
+        long[] leadMinutes = null;
+        boolean hasFilepath = false;
+        for (int i = 0; i < args.length; i += 1) {
+            if (args[i].equals(JOURNAL_OPTION)) {
+                isJournaled = true;
+            } else if (args[i].equals(ASYNC_OPTION)) {
+                isAsync = true;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    i += 1;
+                    maxStaleness = Long.parseLong(args[i]);
+                }
+            } else if (args[i].equals(COLUMNAR_OPTION)) {
+                isColumnar = true;
+            } else if (args[i].equals(BATCH_OPTION) && i + 1 < args.length) {
+                i += 1;
+                batchpath = args[i];
+            } else if (args[i].equals(SERVER_OPTION) && i + 1 < args.length) {
+                i += 1;
+                serverAddress = args[i];
+            } else if (args[i].equals(PUBLIC_OPTION)) {
+                isPublic = true;
+            } else if (args[i].equals(TENANTS_OPTION) && i + 1 < args.length) {
+                i += 1;
+                tenantDirectory = args[i];
+            } else if (args[i].equals(MEMORY_BUDGET_OPTION) && i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                i += 1;
+                memoryBudget = Long.parseLong(args[i]) << 20;
+            } else if (args[i].equals(METRICS_OPTION)) {
+                Metrics.getInstance().setEnabled(true);
+            } else if (args[i].equals(REMIND_OPTION)) {
+                leadMinutes = ReminderScheduler.DEFAULT_LEAD_MINUTES;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+(,\\d+)*")) {
+                    i += 1;
+                    leadMinutes = Stream.of(args[i].split(",")).mapToLong(Long::parseLong).toArray();
+                }
+            } else if (args[i].equals(LOCALE_OPTION) && i + 1 < args.length) {
+                i += 1;
+                locale = args[i];
+            } else if (!hasFilepath) {
+                // Take the 1st argument which is not an option as the save filepath
+                filepath = args[i];
+                hasFilepath = true;
+            }
+        }
+
+        Ui ui = new Ui(Ui.DEFAULT_INDENT_CHARACTER, Ui.DEFAULT_INDENT_COUNT, locale);
+        Function<String, Storage> storageFactory;
+        try {
+            storageFactory = createStorageFactory(isJournaled, isAsync, maxStaleness, isColumnar);
+        } catch (IllegalArgumentException e) {
+            ui.printException(e);
+            ui.close();
+            return;
+        }
+        if (tenantDirectory != null) {
+            runTenantServer(serverAddress, isPublic,
+                    new TenantPool(Paths.get(tenantDirectory), memoryBudget, storageFactory), locale, ui);
+            return;
+        }
+        Duke duke = new Duke(storageFactory.apply(filepath), filepath, ui);
+        if (serverAddress != null) {
+            duke.runServer(serverAddress, isPublic, locale);
+        } else if (batchpath == null) {
+            if (leadMinutes != null) {
+                duke.startReminders(leadMinutes);
+            }
+            duke.run();
+        } else if (!duke.runBatch(batchpath)) {
+            System.exit(1);
         }
-        new Duke(filepath).run();
     }
 }
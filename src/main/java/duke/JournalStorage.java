@@ -0,0 +1,189 @@
+package duke;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import duke.exception.SaveException;
+import duke.exception.SaveException.SaveExceptionType;
+import duke.metrics.Metrics;
+import duke.task.Task;
+
+/**
+ * A storage which appends a small record to a log file for each change instead of rewriting the whole list.
+ * The log sits next to the save file (with a ".log" suffix) and is replayed on top of it when loading.
+ * Once the log grows beyond a threshold, the list is compacted into a new save file and the log starts over.
+ *
+ * Both files carry a generation number, so a log which has already been compacted into the save file is never
+ * replayed twice. A record cut off in the middle (e.g. by a crash) is dropped together with everything after it.
+ * Every record is synced to the disk before the change is acknowledged, so a crash loses no change reported done.
+ */
+public class JournalStorage extends Storage {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    protected String logpath;
+    protected int compactionThreshold;
+
+    protected boolean isReplayed = false;
+    protected FileOutputStream logOut;
+
+    /**
+     * Construct a journaled storage with the default compaction threshold
+     * @param filepath Filepath of the save file, the log uses the same path with a ".log" suffix
+     */
+    public JournalStorage(String filepath) {
+        this(filepath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Construct a journaled storage
+     * @param filepath Filepath of the save file, the log uses the same path with a ".log" suffix
+     * @param compactionThreshold Number of log records after which the list is compacted into the save file
+     */
+    public JournalStorage(String filepath, int compactionThreshold) {
+        super(filepath);
+        this.logpath = filepath + LOG_SUFFIX;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Load the task list from the save file and the log, then get the log ready for appending new records
+     * @return The task list loaded
+     * @throws IOException This is thrown when file reading encounters an error
+     * @throws SaveException This is thrown when neither save file nor log exists, or either of them is invalid
+     */
+    @Override
+    public TaskList load() throws IOException, SaveException {
+        TaskList tasks = super.load();
+
+        // Drop whatever follows the last complete record, so that new records are not appended after garbage
+        try (RandomAccessFile file = new RandomAccessFile(logpath, "rw")) {
+            if (logLength == 0) {
+                writeLogHeader(file);
+            } else if (file.length() != logLength) {
+                file.setLength(logLength);
+                file.getChannel().force(true);
+            }
+        }
+        logOut = new FileOutputStream(logpath, true);
+        isReplayed = true;
+        return tasks;
+    }
+
+    /**
+     * Compact the list into the save file, then start a new log
+     * @param tasks Task list to be saved
+     * @throws IOException This is thrown when file writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    @Override
+    public void save(TaskList tasks) throws IOException, SaveException {
+        close();
+        generation += 1;
+        // Counted again from the new log, so that the save file does not make itself stale
+        recordCount = 0;
+        super.save(tasks);
+
+        // The save file now holds everything, the old log can be discarded
+        try (RandomAccessFile file = new RandomAccessFile(logpath, "rw")) {
+            writeLogHeader(file);
+        } catch (FileNotFoundException e) {
+            throw new SaveException(SaveExceptionType.INVALID_PATH);
+        }
+        logOut = new FileOutputStream(logpath, true);
+        isReplayed = true;
+    }
+
+    @Override
+    public void recordAdd(TaskList tasks, Task task) throws IOException, SaveException {
+        append(tasks, OP_ADD, tasks.size() - 1, encodeTask(task));
+    }
+
+    @Override
+    public void recordSet(TaskList tasks, int index, Task task) throws IOException, SaveException {
+        append(tasks, OP_SET, index, encodeTask(task));
+    }
+
+    @Override
+    public void recordDone(TaskList tasks, int index) throws IOException, SaveException {
+        append(tasks, OP_DONE, index, new byte[0]);
+    }
+
+    @Override
+    public void recordDelete(TaskList tasks, int index) throws IOException, SaveException {
+        append(tasks, OP_DELETE, index, new byte[0]);
+    }
+
+    @Override
+    public void recordDoneAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        append(tasks, OP_DONE_ALL, indexes.length, encodeIndexes(indexes));
+    }
+
+    @Override
+    public void recordDeleteAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        append(tasks, OP_DELETE_ALL, indexes.length, encodeIndexes(indexes));
+    }
+
+    /**
+     * Close the log file
+     * @throws IOException This is thrown when the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (logOut != null) {
+            logOut.close();
+            logOut = null;
+        }
+    }
+
+    /**
+     * Append a record to the log with a single write, compact the list when the log is long enough
+     */
+    protected void append(TaskList tasks, byte op, int index, byte[] payload) throws IOException, SaveException {
+        if (!isReplayed || logOut == null) {
+            // The log on disk does not describe the list we are holding (e.g. loading has failed), start over
+            save(tasks);
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_OVERHEAD + payload.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(op);
+        out.writeInt(index);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt(checksum(op, index, payload));
+        logOut.write(bytes.toByteArray());
+        // The change is only acknowledged to the user once its record has reached the disk
+        logOut.getChannel().force(false);
+        Metrics.recordSave(bytes.size());
+
+        recordCount += 1;
+        if (recordCount >= compactionThreshold) {
+            save(tasks);
+        }
+    }
+
+    protected void writeLogHeader(RandomAccessFile file) throws IOException {
+        file.setLength(0);
+        file.writeInt(LOG_MAGIC);
+        file.writeLong(generation);
+        file.getChannel().force(true);
+    }
+
+    protected static byte[] encodeTask(Task task) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskCodec.writeTask(new DataOutputStream(bytes), task);
+        return bytes.toByteArray();
+    }
+
+    protected static byte[] encodeIndexes(int[] indexes) {
+        ByteBuffer buffer = ByteBuffer.allocate(indexes.length * Integer.BYTES);
+        buffer.asIntBuffer().put(indexes);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,77 @@
+package duke;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import duke.exception.SaveException;
+import duke.task.Task;
+
+/**
+ * Tasks of a save file mapped into memory, which are decoded one at a time when the task list needs them.
+ * The save file keeps an index with the offset of every task, so no task has to be scanned to find another.
+ * @see Storage
+ */
+public class MappedTaskSource {
+    protected ByteBuffer buffer;
+    protected int indexOffset;
+    protected int size;
+
+    /**
+     * Construct a task source over a mapped save file
+     * @param buffer Buffer holding the whole save file
+     * @param indexOffset Position of the offset index in the buffer
+     * @param size Number of tasks in the save file
+     */
+    public MappedTaskSource(ByteBuffer buffer, int indexOffset, int size) {
+        this.buffer = buffer;
+        this.indexOffset = indexOffset;
+        this.size = size;
+    }
+
+    /**
+     * Get the number of tasks in the save file
+     * @return Number of tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the position of a task in the buffer
+     * @param record Index of the task in the save file, start at 0
+     * @return Position of the encoded task
+     */
+    public int offsetOf(int record) {
+        return buffer.getInt(indexOffset + record * Integer.BYTES);
+    }
+
+    /**
+     * Copy a task as it is encoded in the save file
+     * @param record Index of the task in the save file, start at 0
+     * @param out Output to copy into
+     * @throws IOException This is thrown when writing encounters an error
+     */
+    public void copyTo(int record, DataOutput out) throws IOException {
+        int offset = offsetOf(record);
+        // Tasks are stored in the same order as the index, and the index follows the last task
+        int end = record + 1 < size ? offsetOf(record + 1) : indexOffset;
+        byte[] bytes = new byte[end - offset];
+        buffer.duplicate().position(offset).get(bytes);
+        out.write(bytes);
+    }
+
+    /**
+     * Decode a task out of the save file
+     * @param record Index of the task in the save file, start at 0
+     * @return The task decoded
+     * @throws IllegalStateException This is thrown when the task cannot be decoded, i.e. the file has been corrupted
+     */
+    public Task decode(int record) {
+        try {
+            return TaskCodec.readTask(buffer, offsetOf(record));
+        } catch (SaveException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package duke;
 
-import java.lang.reflect.Constructor;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 
 import duke.command.Command;
+import duke.command.CommandFactory;
+import duke.command.CommandRegistry;
 import duke.exception.InvalidInputException;
 import duke.exception.InvalidInputException.InputExceptionType;
 
@@ -13,20 +12,31 @@ import duke.exception.InvalidInputException.InputExceptionType;
  * Parser for parsing the line of command to tokens and construct the command class
  */
 public class Parser {
-    // Delimiter for string join is a single whitespace (for string split, it is any number of whitespaces)
-    public static final String DELIMITER = " ";
-
     protected Ui ui;
     protected TaskList tasks;
+    protected CommandRegistry registry;
+    // Reused for every line parsed, so a parser must not be shared between threads
+    protected Tokenizer tokenizer = new Tokenizer();
 
     /**
-     * Constructor of the Parser class
+     * Constructor of the Parser class, using the default command registry
      * @param ui Ui instance that will be passed to the command instances
      * @param tasks TaskList instance will be passed to the command instances
      */
     public Parser(Ui ui, TaskList tasks) {
+        this(ui, tasks, CommandRegistry.getDefault());
+    }
+
+    /**
+     * Constructor of the Parser class
+     * @param ui Ui instance that will be passed to the command instances
+     * @param tasks TaskList instance will be passed to the command instances
+     * @param registry Registry used for looking up command classes
+     */
+    public Parser(Ui ui, TaskList tasks, CommandRegistry registry) {
         this.ui = ui;
         this.tasks = tasks;
+        this.registry = registry;
     }
 
     /**
@@ -43,58 +53,46 @@ public class Parser {
      *
      * Then, ui, tasks and this argument hashmap will be passed to initialize a command class.
      *
-     * The command class is determined by the 1st token of the command string. For example, for a command string 'find',
-     * command class 'duke.command.FindCommand' will be initialized.
+     * The command class is determined by the 1st token of the command string, which is looked up in the command
+     * registry. For example, for a command string 'find', command class 'duke.command.FindCommand' will be initialized.
      * @param fullCommand The line of command to be parsed
      * @return A Command instance which is ready to be executed
      * @throws InvalidInputException This is thrown when command cannot be recognized (respective Command class cannot
      * be constructed)
      * @see Command
+     * @see CommandRegistry
      */
     public Command parse(String fullCommand) throws InvalidInputException {
-        HashMap<String, String> arguments = new HashMap<>();
-        String[] tokens = fullCommand.split("\\s+");
-        // If first token (command) is empty, there are empty spaces typed in at the front - so we remove it
-        if (tokens[0].isEmpty()) {
-            tokens = Arrays.copyOfRange(tokens, 1, tokens.length);
-        }
-        if (tokens.length == 0) {
+        int size = tokenizer.tokenize(fullCommand);
+        if (size == 0) {
             throw new InvalidInputException(InputExceptionType.UNKNOWN_COMMAND);
         }
-        arguments.put("command", tokens[0]);
+        HashMap<String, String> arguments = new HashMap<>();
+        String command = tokenizer.get(0, 0);
+        arguments.put("command", command);
 
         // Default key is "payload"
         String key = "payload";
-        ArrayList<String> values = new ArrayList<>();
-        for (int i = 1; i < tokens.length; ++i) {
+        int valueStart = 1;
+        for (int i = 1; i < size; ++i) {
             // Check whether this token is a new key
-            if (tokens[i].charAt(0) == '/') {
+            if (tokenizer.firstCharAt(i) == '/') {
                 // If it is, save current value into the map and start a new k-v pair
-                arguments.put(key, String.join(DELIMITER, values));
-                key = tokens[i].substring(1);
-                values.clear();
-            } else {
-                // If not, append this token to the end of the value
-                values.add(tokens[i]);
+                arguments.put(key, tokenizer.join(valueStart, i));
+                key = tokenizer.get(i, 1);
+                valueStart = i + 1;
             }
         }
 
         // Store the last k-v pair
-        // Store even when `values` is empty, as that indicates an empty string
-        arguments.put(key, String.join(DELIMITER, values));
+        // Store even when the value is empty, as that indicates an empty string
+        arguments.put(key, tokenizer.join(valueStart, size));
 
-        // Initialize a respective class from the command (by capitalize first character)
-        String className = tokens[0] + "Command";
-        className = className.substring(0, 1).toUpperCase() + className.substring(1);
-        className = "duke.command." + className;
-        try {
-            Class<?> cls = Class.forName(className);
-            Constructor<?> constructor = cls.getDeclaredConstructor(Ui.class, TaskList.class, HashMap.class);
-            Object obj = constructor.newInstance(ui, tasks, arguments);
-            return (Command) obj;
-        } catch (Exception e) {
-            // If any exception thrown above, it means the command is not formatted properly
-            throw new InvalidInputException(InputExceptionType.UNKNOWN_COMMAND, e);
+        // Initialize a respective class from the command
+        CommandFactory factory = registry.lookup(command);
+        if (factory == null) {
+            throw new InvalidInputException(InputExceptionType.UNKNOWN_COMMAND);
         }
+        return factory.create(ui, tasks, arguments);
     }
 }
@@ -1,20 +1,93 @@
 package duke;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Vector;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 import duke.exception.SaveException;
 import duke.exception.SaveException.SaveExceptionType;
+import duke.metrics.Metrics;
+import duke.store.ChunkedTaskStore;
+import duke.store.TaskStore;
+import duke.task.Task;
 
 /**
- * Storage class for handling the loading and writing of local save file
+ * Storage class for handling the loading and writing of local save file.
+ * Every change recorded through this class causes the full task list to be written again.
+ * A log left next to the save file by the journaled storage is replayed when loading, whichever storage is used.
+ *
+ * Save file layout:
+ * | part   | content                                                        |
+ * |--------|----------------------------------------------------------------|
+ * | header | magic number (4 bytes), version (1 byte), generation (8 bytes) |
+ * | tasks  | each task encoded by TaskCodec                                 |
+ * | index  | offset of each task in the file (4 bytes each)                 |
+ * | footer | number of tasks (4 bytes), offset of the index (4 bytes)       |
+ * | crc    | CRC32C of everything above (4 bytes)                           |
+ *
+ * Save files written with Java serialization by older versions can still be loaded.
+ * @see JournalStorage
+ * @see TaskCodec
  */
-public class Storage {
+public class Storage implements AutoCloseable {
+    public static final int SAVE_MAGIC = 0x44554b45; // "DUKE"
+    public static final byte SAVE_VERSION = 3;
+    // First two bytes of a stream written by ObjectOutputStream
+    public static final int LEGACY_MAGIC = 0xaced;
+    protected static final int HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES;
+    protected static final int FOOTER_SIZE = Integer.BYTES * 2;
+
+    public static final String TEMP_SUFFIX = ".tmp";
+    public static final String PREVIOUS_SUFFIX = ".prev";
+    // Suffix of the log which the journaled storage keeps next to the save file
+    public static final String LOG_SUFFIX = ".log";
+    public static final int LOG_MAGIC = 0x44554b4c; // "DUKL"
+
+    // Operation codes of the log records
+    public static final byte OP_ADD = 1;
+    public static final byte OP_SET = 2;
+    public static final byte OP_DONE = 3;
+    public static final byte OP_DELETE = 4;
+    // Changes of many tasks at once, whose index is the number of tasks and payload their indexes
+    public static final byte OP_DONE_ALL = 5;
+    public static final byte OP_DELETE_ALL = 6;
+
+    // Size of the fixed part of a record: op (1), index (4), payload length (4) and trailing CRC32 (4)
+    protected static final int RECORD_OVERHEAD = 13;
+
     protected String filepath;
+    // Number of times the list has been compacted by the journaled storage, or saved after replaying its log
+    protected long generation = 0;
+    // Number of records in the log of the current generation, which are part of the list loaded or changed since
+    protected int recordCount = 0;
+    // Length of the valid part of the log replayed by load(), 0 if there is no log of the current generation
+    protected long logLength = 0;
+    // Creates the store of every task list loaded or created by this storage
+    protected Supplier<TaskStore> storeFactory = ChunkedTaskStore::new;
 
     /**
      * Construct a storage instance by setting the filepath attribute with the given value
@@ -25,70 +98,514 @@ public class Storage {
     }
 
     /**
-     * Load a task list from the save file
+     * Setter for the storeFactory attribute, which only affects task lists loaded or created afterwards
+     * @param storeFactory Factory of the stores holding the tasks (e.g. ColumnarTaskStore::new)
+     */
+    public void setStoreFactory(Supplier<TaskStore> storeFactory) {
+        this.storeFactory = storeFactory;
+    }
+
+    /**
+     * Create an empty task list using this storage, on top of a store given by the store factory
+     * @return The task list created
+     */
+    public TaskList createTaskList() {
+        return new TaskList(this, storeFactory.get());
+    }
+
+    /**
+     * Load a task list from the save file, then replay the log of the journaled storage on top of it.
+     * If the save file is damaged, the previous generation of it is loaded instead. If it is missing but the temporary
+     * file of a save whose renaming was interrupted is complete, that temporary file is loaded.
+     * For save files of the current version, the file is mapped into memory and tasks are only decoded when used.
+     * The log is replayed whichever storage loads the list, so a journaled list never shows up stale. The next save
+     * file written then starts a new generation, so that the log is not replayed again on top of it.
      * @return The task list loaded from the file
-     * @throws IOException This is thrown when object reading encounters an error
+     * @throws IOException This is thrown when file reading encounters an error
      * @throws SaveException This is thrown when save file is missing, or a task list cannot be retrieved
      */
     public TaskList load() throws IOException, SaveException {
-        TaskList tasks = null;
-        FileInputStream fileIn = null;
-        ObjectInputStream objIn = null;
+        TaskList tasks;
+        if (Files.exists(Paths.get(filepath))) {
+            tasks = loadSnapshot();
+        } else {
+            tasks = loadInterruptedSave();
+        }
+        recordCount = 0;
+        logLength = replay(tasks);
+        return tasks;
+    }
+
+    /**
+     * Load a task list from the save file, or from its previous generation if it is damaged
+     * @return The task list loaded from the file
+     * @throws IOException This is thrown when file reading encounters an error
+     * @throws SaveException This is thrown when save file is missing, or a task list cannot be retrieved
+     */
+    protected TaskList loadSnapshot() throws IOException, SaveException {
         try {
-            fileIn = new FileInputStream(this.filepath);
-            objIn = new ObjectInputStream(fileIn);
-            Object obj = objIn.readObject();
+            return load(Paths.get(filepath));
+        } catch (IOException | SaveException e) {
+            Path previous = Paths.get(filepath + PREVIOUS_SUFFIX);
+            if (!Files.exists(previous)) {
+                throw e;
+            }
+            try {
+                return load(previous);
+            } catch (IOException | SaveException ex) {
+                // Report the problem of the current generation, which is what the user knows about
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Load a task list while the save file is missing.
+     * A save interrupted between its two renames leaves a complete temporary file, which is newer than the previous
+     * generation and is the one the log belongs to, so it is loaded. The next save then takes its place. A journaled
+     * list which has never been compacted lives entirely in the log, so it starts from an empty list.
+     * @return The task list loaded from the temporary file, or an empty list
+     * @throws IOException This is thrown when file reading encounters an error
+     * @throws SaveException This is thrown when there is neither a complete temporary file nor a log
+     */
+    protected TaskList loadInterruptedSave() throws IOException, SaveException {
+        Path temp = Paths.get(filepath + TEMP_SUFFIX);
+        if (Files.exists(temp)) {
+            try {
+                return load(temp);
+            } catch (SaveException e) {
+                // Cut off by a crash while it was written, so no rename was interrupted
+            }
+        }
+        if (!Files.exists(Paths.get(filepath + LOG_SUFFIX))) {
+            throw new SaveException(SaveExceptionType.NO_SAVE);
+        }
+        generation = 0;
+        return createTaskList();
+    }
 
-            if (obj instanceof TaskList) {
-                tasks = (TaskList) obj;
-                tasks.setStorage(this);
+    /**
+     * Load a task list from the given file
+     * @param path Path of the file
+     * @return The task list loaded from the file
+     * @throws IOException This is thrown when file reading encounters an error
+     * @throws SaveException This is thrown when the file is missing, or a task list cannot be retrieved
+     */
+    protected TaskList load(Path path) throws IOException, SaveException {
+        TaskList tasks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            in.mark(Integer.BYTES);
+            int magic = in.readInt();
+            if (magic == SAVE_MAGIC) {
+                byte version = in.readByte();
+                if (version != SAVE_VERSION) {
+                    throw new SaveException(SaveExceptionType.INVALID_SAVE);
+                }
+                tasks = readMappedSnapshot(channel);
+            } else if ((magic >>> 16) == LEGACY_MAGIC) {
+                // Save file written by an older version, which used Java serialization
+                in.reset();
+                tasks = readLegacySnapshot(in);
             } else {
                 throw new SaveException(SaveExceptionType.INVALID_SAVE);
             }
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             throw new SaveException(SaveExceptionType.NO_SAVE, e);
-        } catch (ClassNotFoundException e) {
+        } catch (EOFException e) {
             throw new SaveException(SaveExceptionType.INVALID_SAVE, e);
-        } finally {
-            // Close all open file and object handles
-            if (objIn != null) {
-                objIn.close();
+        }
+        tasks.setStorage(this);
+        return tasks;
+    }
+
+    /**
+     * Replay the records of the log of the current generation onto the list loaded from the save file
+     * Replay stops at the first record which is incomplete, damaged or cannot be applied to the list, and the log is
+     * only valid up to there.
+     * @param tasks The task list loaded from the save file
+     * @return Length of the valid part of the log, 0 if the log has to be started over
+     * @throws IOException This is thrown when file reading encounters an error
+     */
+    protected long replay(TaskList tasks) throws IOException {
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(filepath + LOG_SUFFIX)));
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+
+        try (in) {
+            long length;
+            try {
+                if (in.readInt() != LOG_MAGIC || in.readLong() != generation) {
+                    // This log belongs to a generation which has already been compacted into the save file
+                    return 0;
+                }
+            } catch (EOFException e) {
+                return 0;
             }
-            if (fileIn != null) {
-                fileIn.close();
+            length = Integer.BYTES + Long.BYTES;
+
+            while (true) {
+                byte op;
+                int index;
+                byte[] payload;
+                try {
+                    op = in.readByte();
+                    index = in.readInt();
+                    int payloadLength = in.readInt();
+                    if (payloadLength < 0) {
+                        break;
+                    }
+                    payload = new byte[payloadLength];
+                    in.readFully(payload);
+                    if (checksum(op, index, payload) != in.readInt()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    // The last record is incomplete
+                    break;
+                }
+                try {
+                    apply(tasks, op, index, payload);
+                } catch (SaveException e) {
+                    // Treated like a damaged record, so that the changes before it are kept and the rest is dropped
+                    break;
+                }
+                length += RECORD_OVERHEAD + payload.length;
+                recordCount += 1;
             }
+            return length;
+        }
+    }
+
+    /**
+     * Apply a single log record to the list, without recording it again
+     * The list is left unchanged when the record cannot be applied.
+     */
+    protected void apply(TaskList tasks, byte op, int index, byte[] payload) throws IOException, SaveException {
+        try {
+            switch (op) {
+            case OP_ADD:
+                tasks.add(decodeTask(payload));
+                break;
+            case OP_SET:
+                tasks.set(index, decodeTask(payload));
+                break;
+            case OP_DONE:
+                tasks.markAsDone(index);
+                break;
+            case OP_DELETE:
+                tasks.remove(index);
+                break;
+            case OP_DONE_ALL:
+                tasks.markAllAsDone(decodeIndexes(payload, index));
+                break;
+            case OP_DELETE_ALL:
+                tasks.removeAll(decodeIndexes(payload, index));
+                break;
+            default:
+                throw new SaveException(SaveExceptionType.INVALID_SAVE);
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | EOFException e) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE, e);
         }
-        return tasks;
     }
 
     /**
-     * Save the task list to the save file
+     * Save the task list to the save file.
+     * The list is written into a temporary file, which replaces the save file only after it has reached the disk.
+     * The replaced save file is kept as the previous generation.
      * @param tasks Task list to be saved
-     * @throws IOException This is thrown when object writing encounters an error
+     * @throws IOException This is thrown when file writing encounters an error
      * @throws SaveException This is thrown when being failed to open the save file
      */
     public void save(TaskList tasks) throws IOException, SaveException {
-        FileOutputStream fileOut = null;
-        ObjectOutputStream objOut = null;
-        try {
-            fileOut = new FileOutputStream(this.filepath);
-            objOut = new ObjectOutputStream(fileOut);
+        writeSaveFile(out -> writeSnapshot(out, tasks));
+    }
 
-            // Nullify storage attribute before saving
-            tasks.setStorage(null);
-            objOut.writeObject(tasks);
-            tasks.setStorage(this);
+    /**
+     * Write a save file atomically: write into a temporary file, append a checksum, fsync, then rename it over
+     * the save file and fsync the directory holding it. Since the save file is never written over, a list mapped
+     * from it stays valid.
+     * @param writer Writer of the save file content
+     * @throws IOException This is thrown when file writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the temporary file
+     */
+    protected void writeSaveFile(SnapshotWriter writer) throws IOException, SaveException {
+        Path path = Paths.get(filepath);
+        Path temp = Paths.get(filepath + TEMP_SUFFIX);
+        if (Files.isRegularFile(temp)) {
+            // Left by an interrupted save, whose list may still be mapped from it, so it is not written over
+            Files.delete(temp);
+        }
+        FileOutputStream fileOut;
+        try {
+            fileOut = new FileOutputStream(temp.toFile());
         } catch (FileNotFoundException e) {
             // Thrown by `new FileOutputStream`, usually when `file` is a folder or cannot be created
             throw new SaveException(SaveExceptionType.INVALID_PATH);
-        } finally {
-            // Close all open file and object handles
-            if (objOut != null) {
-                objOut.close();
+        }
+        try (fileOut) {
+            BufferedOutputStream buffered = new BufferedOutputStream(fileOut);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            writer.write(out);
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            Metrics.recordSave(out.size() + Integer.BYTES);
+            fileOut.getChannel().force(true);
+        }
+
+        if (Files.exists(path)) {
+            Files.move(path, Paths.get(filepath + PREVIOUS_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Force the entries of a directory to the disk, so that the files just renamed in it survive a crash
+     * @param directory Path of the directory
+     * @throws IOException This is thrown when the directory cannot be synced
+     */
+    protected static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) cannot open a directory, and commit a rename without being asked to
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Map the save file into memory, verify its checksum, then read its header and index without decoding any task
+     * @param channel Channel of the save file
+     * @return The task list read, with all its tasks still in the mapped file
+     * @throws IOException This is thrown when file mapping encounters an error
+     * @throws SaveException This is thrown when the save file is invalid
+     */
+    protected TaskList readMappedSnapshot(FileChannel channel) throws IOException, SaveException {
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE || fileSize < HEADER_SIZE + FOOTER_SIZE + Integer.BYTES) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE);
+        }
+        // The mapping stays valid after the channel is closed
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        int crcOffset = (int) fileSize - Integer.BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(crcOffset));
+        if ((int) crc.getValue() != buffer.getInt(crcOffset)) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE);
+        }
+
+        int footerOffset = crcOffset - FOOTER_SIZE;
+        int size = buffer.getInt(footerOffset);
+        int indexOffset = buffer.getInt(footerOffset + Integer.BYTES);
+        if (size < 0 || indexOffset < HEADER_SIZE || (long) indexOffset + (long) size * Integer.BYTES != footerOffset) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE);
+        }
+        generation = buffer.getLong(Integer.BYTES + 1);
+
+        TaskList tasks = createTaskList();
+        tasks.setSource(new MappedTaskSource(buffer, indexOffset, size));
+        return tasks;
+    }
+
+    /**
+     * Writer of the content of a save file
+     */
+    protected interface SnapshotWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Read the task list out of a save file written with Java serialization
+     * @param in Input positioned at the start of the save file
+     * @return The task list read
+     * @throws IOException This is thrown when object reading encounters an error
+     * @throws SaveException This is thrown when a task list cannot be retrieved
+     */
+    protected TaskList readLegacySnapshot(InputStream in) throws IOException, SaveException {
+        ObjectInputStream objIn = new ObjectInputStream(in) {
+            @Override
+            protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                ObjectStreamClass descriptor = super.readClassDescriptor();
+                if (descriptor.getName().equals(TaskList.class.getName())) {
+                    // TaskList used to extend Vector, read it into a class of the same shape
+                    return ObjectStreamClass.lookup(LegacyTaskList.class);
+                }
+                return descriptor;
             }
-            if (fileOut != null) {
-                fileOut.close();
+        };
+        Object obj;
+        try {
+            obj = objIn.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE, e);
+        }
+        if (!(obj instanceof LegacyTaskList)) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE);
+        }
+        // Older versions had no journal, so no log can belong to the list
+        generation = 0;
+        TaskList tasks = createTaskList();
+        for (Task task : (LegacyTaskList) obj) {
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * The shape TaskList had in save files written with Java serialization
+     */
+    protected static class LegacyTaskList extends Vector<Task> {
+        public static final long serialVersionUID = 1L;
+        protected Storage storage;
+    }
+
+    /**
+     * Write the task list into a save file
+     * @param out Output positioned at the start of the save file
+     * @param tasks Task list to be written
+     * @throws IOException This is thrown when file writing encounters an error
+     */
+    protected void writeSnapshot(DataOutputStream out, TaskList tasks) throws IOException {
+        if (recordCount > 0) {
+            // The list holds the records of the log, which must not be replayed again on top of this save file
+            generation += 1;
+            recordCount = 0;
+        }
+        out.writeInt(SAVE_MAGIC);
+        out.writeByte(SAVE_VERSION);
+        out.writeLong(generation);
+
+        int size = tasks.size();
+        int[] offsets = new int[size];
+        for (int i = 0; i < size; i += 1) {
+            offsets[i] = out.size();
+            // Tasks still in the mapped file are copied over without being decoded
+            int record = tasks.getUndecodedRecord(i);
+            if (record < 0) {
+                TaskCodec.writeTask(out, tasks.get(i));
+            } else {
+                tasks.getSource().copyTo(record, out);
             }
         }
+        int indexOffset = out.size();
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.writeInt(size);
+        out.writeInt(indexOffset);
+        if (out.size() == Integer.MAX_VALUE) {
+            // DataOutputStream stops counting here, so the offsets written are not reliable any more
+            throw new IOException("Save file cannot be larger than 2GB");
+        }
+    }
+
+    protected static int checksum(byte op, int index, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(index >>> 24);
+        crc.update(index >>> 16);
+        crc.update(index >>> 8);
+        crc.update(index);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    protected static int[] decodeIndexes(byte[] payload, int count) throws SaveException {
+        if (payload.length != count * Integer.BYTES) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE);
+        }
+        int[] indexes = new int[count];
+        ByteBuffer.wrap(payload).asIntBuffer().get(indexes);
+        return indexes;
+    }
+
+    protected static Task decodeTask(byte[] payload) throws IOException, SaveException {
+        return TaskCodec.readTask(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    /**
+     * Record that a task has been appended to the end of the list
+     * @param tasks The task list after the change
+     * @param task The task appended
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordAdd(TaskList tasks, Task task) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Record that a task in the list has been replaced
+     * @param tasks The task list after the change
+     * @param index Index of the task replaced, start at 0
+     * @param task The new task at this index
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordSet(TaskList tasks, int index, Task task) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Record that a task in the list has been marked as done
+     * @param tasks The task list after the change
+     * @param index Index of the task marked, start at 0
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordDone(TaskList tasks, int index) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Record that a task has been removed from the list
+     * @param tasks The task list after the change
+     * @param index Index the task used to have, start at 0
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordDelete(TaskList tasks, int index) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Record that many tasks in the list have been marked as done at once
+     * @param tasks The task list after the change
+     * @param indexes Indexes of the tasks marked, start at 0, in increasing order
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordDoneAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Record that many tasks have been removed from the list at once
+     * @param tasks The task list after the change
+     * @param indexes Indexes the tasks used to have, start at 0, in increasing order
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public void recordDeleteAll(TaskList tasks, int[] indexes) throws IOException, SaveException {
+        save(tasks);
+    }
+
+    /**
+     * Release any file handle kept open by this storage. Nothing is kept open by default.
+     * @throws IOException This is thrown when a file handle cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
     }
 }
@@ -0,0 +1,169 @@
+package duke;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import duke.exception.InvalidInputException;
+import duke.exception.SaveException;
+import duke.exception.SaveException.SaveExceptionType;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * Binary encoding of tasks used by the save file and the journal.
+ *
+ * Each task is written as:
+ * | field       | size                                            |
+ * |-------------|-------------------------------------------------|
+ * | type tag    | 1 byte (TYPE_TODO, TYPE_DEADLINE or TYPE_EVENT) |
+ * | done flag   | 1 byte                                          |
+ * | description | varint byte length + UTF-8 bytes                |
+ * | dateTime    | 8 bytes epoch second (deadline and event only)  |
+ */
+public class TaskCodec {
+    public static final byte TYPE_TODO = 1;
+    public static final byte TYPE_DEADLINE = 2;
+    public static final byte TYPE_EVENT = 3;
+
+    /**
+     * Write a task into the output
+     * @param out Output to write into
+     * @param task Task to be written
+     * @throws IOException This is thrown when writing encounters an error, or the task type is not supported
+     */
+    public static void writeTask(DataOutput out, Task task) throws IOException {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (task instanceof ToDo) {
+            out.writeByte(TYPE_TODO);
+        } else if (task instanceof Deadline) {
+            out.writeByte(TYPE_DEADLINE);
+        } else if (task instanceof Event) {
+            out.writeByte(TYPE_EVENT);
+        } else {
+            throw new IOException("Task type cannot be encoded: " + task.getClass().getName());
+        }
+        out.writeBoolean(task.isDone());
+        writeVarInt(out, description.length);
+        out.write(description);
+        if (task instanceof Deadline) {
+            out.writeLong(((Deadline) task).getByDateTime().toEpochSecond());
+        } else if (task instanceof Event) {
+            out.writeLong(((Event) task).getAtDateTime().toEpochSecond());
+        }
+    }
+
+    /**
+     * Read a task from the input
+     * @param in Input to read from
+     * @return The task read
+     * @throws IOException This is thrown when reading encounters an error
+     * @throws SaveException This is thrown when the bytes read do not form a valid task
+     */
+    public static Task readTask(DataInput in) throws IOException, SaveException {
+        byte type = in.readByte();
+        boolean isDone = in.readBoolean();
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        long epochSecond = type == TYPE_TODO ? 0 : in.readLong();
+        return createTask(type, isDone, new String(bytes, StandardCharsets.UTF_8), epochSecond);
+    }
+
+    /**
+     * Read a task from the buffer, without changing the position of the buffer
+     * @param buffer Buffer to read from
+     * @param offset Position of the task in the buffer
+     * @return The task read
+     * @throws SaveException This is thrown when the bytes read do not form a valid task
+     */
+    public static Task readTask(ByteBuffer buffer, int offset) throws SaveException {
+        try {
+            byte type = buffer.get(offset);
+            boolean isDone = buffer.get(offset + 1) != 0;
+            int position = offset + 2;
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get(position++);
+                length |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    break;
+                } else if (shift >= Integer.SIZE - 7) {
+                    throw new SaveException(SaveExceptionType.INVALID_SAVE);
+                }
+            }
+            if (length < 0) {
+                throw new SaveException(SaveExceptionType.INVALID_SAVE);
+            }
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(position).get(bytes);
+            long epochSecond = type == TYPE_TODO ? 0 : buffer.getLong(position + length);
+            return createTask(type, isDone, new String(bytes, StandardCharsets.UTF_8), epochSecond);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new SaveException(SaveExceptionType.INVALID_SAVE, e);
+        }
+    }
+
+    /**
+     * Construct a task from its decoded fields
+     */
+    protected static Task createTask(byte type, boolean isDone, String description, long epochSecond)
+            throws SaveException {
+        Task task;
+        try {
+            switch (type) {
+            case TYPE_TODO:
+                task = new ToDo(description);
+                break;
+            case TYPE_DEADLINE:
+                task = new Deadline(description, DateTime.ofEpochSecond(epochSecond));
+                break;
+            case TYPE_EVENT:
+                task = new Event(description, DateTime.ofEpochSecond(epochSecond));
+                break;
+            default:
+                throw new SaveException(SaveExceptionType.INVALID_SAVE);
+            }
+        } catch (InvalidInputException e) {
+            // Empty description, which is never written by writeTask()
+            throw new SaveException(SaveExceptionType.INVALID_SAVE, e);
+        }
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Write a non-negative integer using 7 bits per byte, so that short lengths take a single byte
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read a non-negative integer written by writeVarInt()
+     */
+    public static int readVarInt(DataInput in) throws IOException, SaveException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new SaveException(SaveExceptionType.INVALID_SAVE);
+                }
+                return value;
+            }
+        }
+        throw new SaveException(SaveExceptionType.INVALID_SAVE);
+    }
+}
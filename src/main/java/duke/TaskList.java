@@ -1,18 +1,55 @@
 package duke;
 
 import java.io.IOException;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
 
+import duke.event.TaskEvent;
+import duke.event.TaskEventBus;
+import duke.event.TaskListener;
 import duke.exception.SaveException;
+import duke.index.AgendaIndex;
+import duke.index.DateIndex;
+import duke.index.FilteredIterator;
+import duke.index.FindIndex;
+import duke.index.TaskIndex;
+import duke.metrics.Metrics;
+import duke.store.ChunkedTaskStore;
+import duke.store.TaskStore;
+import duke.store.TaskStore.TaskVisitor;
 import duke.task.Task;
 
 /**
- * A collection class for storing the list of tasks.
- * The entire task list will be automatically saved when there are any changes.
+ * A collection class for storing the list of tasks, on top of a task store.
+ * Every change made through the methods of this class is recorded by the storage handler automatically.
+ *
+ * Changes are made while holding the monitor of the list, so a storage writing the list in another thread can read
+ * it consistently by holding the same monitor. Reading does not take the monitor, as the list is only ever changed by
+ * the thread reading it (except for decoding tasks of a mapped save file, which does take it).
+ *
+ * Every change (whichever method makes it) is published to the event bus of the list, see getEvents(). The indexes
+ * used by find() and searchDate() are built on their first use, then kept up to date as subscribers of the bus.
+ *
+ * Between begin() and commit(), changes are not recorded by the storage handler. Instead, each change is remembered
+ * so that rollback() can bring the list back to how it was at begin(), and commit() saves the whole list once.
  */
-public class TaskList extends Vector<Task> {
-    public static final long serialVersionUID = 1L;
+public class TaskList implements Iterable<Task> {
     protected Storage storage;
+    protected TaskStore store;
+
+    // Every change goes through this feed, which the indexes built subscribe to
+    protected TaskEventBus events = new TaskEventBus();
+    // Indexes which have been built, all of them subscribed to the changes
+    protected ArrayList<TaskIndex> indexes = new ArrayList<>();
+    protected FindIndex findIndex;
+    protected DateIndex dateIndex;
+    protected AgendaIndex agendaIndex;
+
+    // Changes made since begin(), oldest first, null when no transaction is open
+    protected ArrayList<Change> transaction;
 
     /**
      * Constructor of the task list, set storage handler to null
@@ -26,8 +63,17 @@ public class TaskList extends Vector<Task> {
      * @param storage The storage handler which will be used whenever the list is changed
      */
     public TaskList(Storage storage) {
-        super();
+        this(storage, new ChunkedTaskStore());
+    }
+
+    /**
+     * Constructor of the task list
+     * @param storage The storage handler which will be used whenever the list is changed
+     * @param store The store holding the tasks, which must be empty
+     */
+    public TaskList(Storage storage, TaskStore store) {
         setStorage(storage);
+        this.store = store;
     }
 
     /**
@@ -38,6 +84,494 @@ public class TaskList extends Vector<Task> {
         this.storage = storage;
     }
 
+    /**
+     * Get the feed of changes made to this list, e.g. to keep a view derived from the list up to date
+     * @return The event bus of this list
+     */
+    public TaskEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Replace the content of this list with tasks to be decoded from the source on first access
+     * @param source The source of tasks
+     */
+    public synchronized void setSource(MappedTaskSource source) {
+        store.setSource(source);
+        clearIndexes();
+        events.publish(new TaskEvent.Reset());
+    }
+
+    /**
+     * Decode all remaining tasks from the source, after which the source is no longer referenced
+     */
+    public synchronized void materialize() {
+        store.forEach((id, task) -> { });
+    }
+
+    /**
+     * Visit every task with the id given by the store, decoding tasks from the source if necessary
+     * @param visitor Visitor called for each task, in the order of this list
+     */
+    public synchronized void visitAll(TaskVisitor visitor) {
+        store.forEach(visitor);
+    }
+
+    /**
+     * Subscribe to every change of the list, after visiting every task already in it
+     * No change can be made in between, so the subscriber neither misses a task nor is told about one twice.
+     * @param listener The subscriber, called in the thread making each change
+     * @param visitor Visitor called for each task already in the list, in the order of this list
+     */
+    public synchronized void subscribe(TaskListener listener, TaskVisitor visitor) {
+        store.forEach(visitor);
+        events.subscribe(listener);
+    }
+
+    /**
+     * Get the source of the tasks which have not been decoded yet
+     * @return The source, or null if there is none
+     */
+    public MappedTaskSource getSource() {
+        return store.getSource();
+    }
+
+    /**
+     * Get the number of a task in the source, if it has not been decoded yet
+     * @param index Index of the task, start at 0
+     * @return Number of the task in the source, or -1 if it has been decoded
+     */
+    public synchronized int getUndecodedRecord(int index) {
+        return store.getUndecodedRecord(index);
+    }
+
+    /**
+     * Get the number of tasks in the list
+     * @return Number of tasks
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Check whether the list is empty
+     * @return Whether there is no task in the list
+     */
+    public boolean isEmpty() {
+        return store.size() == 0;
+    }
+
+    /**
+     * Get a task in the list, decoding it from the source if necessary
+     * @param index Index of the task, start at 0
+     * @return The task at this index
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this index
+     */
+    public Task get(int index) {
+        if (store.hasUndecoded()) {
+            synchronized (this) {
+                return store.get(index);
+            }
+        }
+        return store.get(index);
+    }
+
+    /**
+     * Remove a task from the list, without saving it
+     * @param index Index of the task, start at 0
+     * @return The task removed
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this index
+     */
+    public synchronized Task remove(int index) {
+        long id = store.getId(index);
+        Task task = store.remove(index);
+        if (events.hasListeners()) {
+            events.publish(new TaskEvent.Removed(index, id, task));
+        }
+        if (transaction != null) {
+            transaction.add(new Change(ChangeType.REMOVE, index, task));
+        }
+        return task;
+    }
+
+    /**
+     * Append a task to the list, without saving it
+     * @param task Task to be appended
+     */
+    public synchronized void add(Task task) {
+        long id = store.add(task);
+        if (events.hasListeners()) {
+            events.publish(new TaskEvent.Added(store.size() - 1, id, task));
+        }
+        if (transaction != null) {
+            transaction.add(new Change(ChangeType.ADD, store.size() - 1, null));
+        }
+    }
+
+    /**
+     * Replace a task in the list, without saving it
+     * @param index Index of the task to be replaced, start at 0
+     * @param task Task to be used for replacement
+     * @return The task replaced
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this index
+     */
+    public synchronized Task set(int index, Task task) {
+        long id = store.getId(index);
+        Task oldTask = store.set(index, task);
+        if (events.hasListeners()) {
+            events.publish(new TaskEvent.Replaced(index, id, oldTask, task));
+        }
+        if (transaction != null) {
+            transaction.add(new Change(ChangeType.SET, index, oldTask));
+        }
+        return oldTask;
+    }
+
+    /**
+     * Mark a task in the list as done, without saving it
+     * @param index Index of the task to be marked, start at 0
+     * @return Whether the task was not done yet, i.e. whether the list has changed
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this index
+     */
+    public synchronized boolean markAsDone(int index) {
+        if (store.get(index).isDone()) {
+            // Nothing changes, so nothing is recorded or published
+            return false;
+        }
+        if (transaction != null) {
+            transaction.add(new Change(ChangeType.DONE, index, null));
+        }
+        Task task = store.markAsDone(index);
+        if (events.hasListeners()) {
+            events.publish(new TaskEvent.MarkedDone(index, store.getId(index), task));
+        }
+        return true;
+    }
+
+    /**
+     * Remove many tasks from the list in a single pass, without saving it
+     * @param indexes Indexes of the tasks, start at 0, in increasing order
+     * @return The tasks removed, in the order of the list
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at one of the indexes
+     * @throws IllegalArgumentException This is thrown when the indexes are not in increasing order
+     */
+    public synchronized List<Task> removeAll(int[] indexes) {
+        checkIndexes(indexes);
+        long[] ids = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i += 1) {
+            ids[i] = store.getId(indexes[i]);
+        }
+        List<Task> removed = store.removeAll(indexes);
+        if (removed.size() > store.size()) {
+            // Cheaper to build the indexes again (when next needed) than to take most tasks out of them
+            clearIndexes();
+        }
+        if (events.hasListeners()) {
+            for (int i = indexes.length - 1; i >= 0; i -= 1) {
+                events.publish(new TaskEvent.Removed(indexes[i], ids[i], removed.get(i)));
+            }
+        }
+        if (transaction != null) {
+            // From the last to the first, as if removed one by one from the back, so that undoing them in reverse
+            // puts each task back at its own index
+            for (int i = indexes.length - 1; i >= 0; i -= 1) {
+                transaction.add(new Change(ChangeType.REMOVE, indexes[i], removed.get(i)));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Mark many tasks in the list as done, without saving it
+     * @param indexes Indexes of the tasks, start at 0, in increasing order
+     * @return Whether any of the tasks was not done yet, i.e. whether the list has changed
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at one of the indexes
+     * @throws IllegalArgumentException This is thrown when the indexes are not in increasing order
+     */
+    public synchronized boolean markAllAsDone(int[] indexes) {
+        checkIndexes(indexes);
+        boolean isChanged = false;
+        for (int index : indexes) {
+            isChanged |= markAsDone(index);
+        }
+        return isChanged;
+    }
+
+    /**
+     * Find the indexes of all tasks matching a condition, in a single pass over the list
+     * @param condition The condition to be met
+     * @return Indexes of the tasks matched, start at 0, in increasing order
+     */
+    public synchronized int[] indexesOf(Predicate<Task> condition) {
+        int[] found = new int[16];
+        int count = 0;
+        Iterator<Task> iterator = store.iterator(0, store.size());
+        for (int index = 0; iterator.hasNext(); index += 1) {
+            if (!condition.test(iterator.next())) {
+                continue;
+            }
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count] = index;
+            count += 1;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Find all tasks whose string contains the needle, case-sensitively
+     * Tasks are found as the result is iterated, so it must be used before the list is changed again.
+     * @param needle The subtext to find
+     * @return Tasks found, in the order of this list
+     */
+    public synchronized Iterator<Task> find(String needle) {
+        if (findIndex == null) {
+            findIndex = new FindIndex(store);
+            addIndex(findIndex);
+        }
+        Iterator<Task> found = findIndex.find(needle);
+        if (found == null) {
+            // Too short for the index to help
+            return new FilteredIterator<>(iterator(), task -> task.toString().contains(needle));
+        }
+        return found;
+    }
+
+    /**
+     * Iterate through the list, decoding tasks from the source if necessary
+     * The list must not be changed during the iteration.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return iterator(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Iterate through a part of the list, decoding tasks from the source if necessary
+     * Only the tasks iterated are touched, no matter how long the list is. The list must not be changed during the
+     * iteration.
+     * @param from Index of the first task, start at 0
+     * @param to Index after the last task, the iteration also stops at the end of the list
+     * @return Iterator over the tasks
+     */
+    public Iterator<Task> iterator(int from, int to) {
+        Iterator<Task> tasks = store.iterator(from, to);
+        if (!store.hasUndecoded()) {
+            return tasks;
+        }
+        return new Iterator<Task>() {
+            @Override
+            public boolean hasNext() {
+                return tasks.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                synchronized (TaskList.this) {
+                    return tasks.next();
+                }
+            }
+        };
+    }
+
+    /**
+     * Find all tasks falling on the same date as the given dateTime
+     * Tasks are found as the result is iterated, so it must be used before the list is changed again.
+     * @param dateTime The date to look up
+     * @return Tasks found, in the order of this list
+     */
+    public synchronized Iterator<Task> searchDate(DateTime dateTime) {
+        return getDateIndex().find(dateTime);
+    }
+
+    /**
+     * Find all tasks falling on a date between the given dateTimes, both inclusive
+     * Tasks are found as the result is iterated, so it must be used before the list is changed again.
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return Tasks found, in the order of this list
+     */
+    public synchronized Iterator<Task> searchDate(DateTime from, DateTime to) {
+        return getDateIndex().find(from, to);
+    }
+
+    /**
+     * Find the tasks not done yet which are due at or after a time, earliest first
+     * Tasks are found as the result is iterated, so it must be used before the list is changed again.
+     * @param from The time to start from
+     * @param limit Maximum number of tasks found
+     * @return Tasks found in chronological order, those at the same time in the order of this list
+     */
+    public synchronized Iterator<Task> findUpcoming(DateTime from, int limit) {
+        return getAgendaIndex().findFrom(from, limit);
+    }
+
+    /**
+     * Find the tasks not done yet which were due before a time, earliest first
+     * Tasks are found as the result is iterated, so it must be used before the list is changed again.
+     * @param to The time to stop at, excluded
+     * @param limit Maximum number of tasks found
+     * @return Tasks found in chronological order, those at the same time in the order of this list
+     */
+    public synchronized Iterator<Task> findOverdue(DateTime to, int limit) {
+        return getAgendaIndex().findBefore(to, limit);
+    }
+
+    protected AgendaIndex getAgendaIndex() {
+        if (agendaIndex == null) {
+            agendaIndex = new AgendaIndex(store);
+            addIndex(agendaIndex);
+        }
+        return agendaIndex;
+    }
+
+    protected DateIndex getDateIndex() {
+        if (dateIndex == null) {
+            dateIndex = new DateIndex(store);
+            addIndex(dateIndex);
+        }
+        return dateIndex;
+    }
+
+    /**
+     * Check that indexes are those of tasks in the list, in increasing order
+     */
+    protected void checkIndexes(int[] indexes) {
+        for (int i = 0; i < indexes.length; i += 1) {
+            if (indexes[i] < 0 || indexes[i] >= store.size()) {
+                throw new IndexOutOfBoundsException("Index: " + indexes[i] + ", Size: " + store.size());
+            }
+            if (i > 0 && indexes[i] <= indexes[i - 1]) {
+                throw new IllegalArgumentException("Indexes are not in increasing order");
+            }
+        }
+    }
+
+    protected void addIndex(TaskIndex index) {
+        indexes.add(index);
+        events.subscribe(index);
+    }
+
+    protected void clearIndexes() {
+        for (TaskIndex index : indexes) {
+            events.unsubscribe(index);
+        }
+        indexes.clear();
+        findIndex = null;
+        dateIndex = null;
+        agendaIndex = null;
+    }
+
+    /**
+     * Start a transaction, during which changes are only saved by commit() and can be undone by rollback()
+     * @throws IllegalStateException This is thrown when a transaction is already open
+     */
+    public synchronized void begin() {
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already open");
+        }
+        transaction = new ArrayList<>();
+    }
+
+    /**
+     * Check whether a transaction is open
+     * @return Whether begin() has been called without a matching commit() or rollback()
+     */
+    public synchronized boolean isInTransaction() {
+        return transaction != null;
+    }
+
+    /**
+     * End the transaction and save the list once if it has been changed.
+     * If saving fails, the changes are rolled back, so that the list stays the same as the save file.
+     * @return Number of changes made during the transaction
+     * @throws IllegalStateException This is thrown when no transaction is open
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public int commit() throws IOException, SaveException {
+        ArrayList<Change> changes;
+        synchronized (this) {
+            changes = endTransaction();
+        }
+        if (!changes.isEmpty()) {
+            try {
+                save();
+            } catch (IOException | SaveException | RuntimeException e) {
+                undo(changes);
+                throw e;
+            }
+        }
+        return changes.size();
+    }
+
+    /**
+     * End the transaction and undo all changes made during it
+     * @return Number of changes undone
+     * @throws IllegalStateException This is thrown when no transaction is open
+     */
+    public synchronized int rollback() {
+        ArrayList<Change> changes = endTransaction();
+        undo(changes);
+        return changes.size();
+    }
+
+    protected ArrayList<Change> endTransaction() {
+        if (transaction == null) {
+            throw new IllegalStateException("No transaction is open");
+        }
+        ArrayList<Change> changes = transaction;
+        transaction = null;
+        return changes;
+    }
+
+    /**
+     * Undo changes on a copy of the list, newest first, then refill the store with the copy.
+     * This takes time in the size of the list, but only happens when a transaction fails.
+     */
+    protected synchronized void undo(ArrayList<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ArrayList<Task> contents = new ArrayList<>(store.size());
+        store.forEach((id, task) -> contents.add(task));
+        for (int i = changes.size() - 1; i >= 0; i -= 1) {
+            Change change = changes.get(i);
+            switch (change.type) {
+            case ADD:
+                contents.remove(change.index);
+                break;
+            case SET:
+                contents.set(change.index, change.task);
+                break;
+            case DONE:
+                contents.get(change.index).markAsNotDone();
+                break;
+            case REMOVE:
+                contents.add(change.index, change.task);
+                break;
+            default:
+                throw new IllegalStateException("Unknown change: " + change.type);
+            }
+        }
+        for (int i = store.size() - 1; i >= 0; i -= 1) {
+            store.remove(i);
+        }
+        for (Task task : contents) {
+            store.add(task);
+        }
+        clearIndexes();
+        events.publish(new TaskEvent.Reset());
+    }
+
+    /**
+     * Check whether changes are recorded by the storage handler as they are made, i.e. outside transactions
+     */
+    protected boolean isRecording() {
+        return storage != null && transaction == null;
+    }
+
     /**
      * If the storage handler is not null, save the list to local file
      * @throws IOException This is thrown when object writing encounters an error
@@ -45,10 +579,38 @@ public class TaskList extends Vector<Task> {
      */
     protected void save() throws IOException, SaveException {
         if (storage != null) {
-            storage.save(this);
+            persist(() -> storage.save(this));
+        }
+    }
+
+    /**
+     * A call to the storage handler
+     */
+    protected interface StorageAction {
+        void run() throws IOException, SaveException;
+    }
+
+    /**
+     * Have the storage handler record a change, unless changes are not recorded right now (see isRecording())
+     * @param action The call recording the change
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    protected void record(StorageAction action) throws IOException, SaveException {
+        if (isRecording()) {
+            persist(action);
         }
     }
 
+    /**
+     * Call the storage handler, timed as the persist phase of the command
+     */
+    protected void persist(StorageAction action) throws IOException, SaveException {
+        long start = Metrics.phaseStart();
+        action.run();
+        Metrics.endPersist(start);
+    }
+
     /**
      * Add a task to the list, save on completion
      * @param task Task to be added
@@ -56,8 +618,8 @@ public class TaskList extends Vector<Task> {
      * @throws SaveException This is thrown when being failed to open the save file
      */
     public void addTask(Task task) throws IOException, SaveException {
-        super.add(task);
-        save();
+        add(task);
+        record(() -> storage.recordAdd(this, task));
     }
 
     /**
@@ -68,8 +630,28 @@ public class TaskList extends Vector<Task> {
      * @throws SaveException This is thrown when being failed to open the save file
      */
     public void setTask(int index, Task task) throws IOException, SaveException {
-        super.set(index, task);
-        save();
+        set(index, task);
+        record(() -> storage.recordSet(this, index, task));
+    }
+
+    /**
+     * Mark a task in the list as done, save on completion unless it was done already
+     * @param index Index of the task to be marked, start at 0
+     * @return The task marked
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public Task markTaskAsDone(int index) throws IOException, SaveException {
+        boolean isChanged;
+        Task task;
+        synchronized (this) {
+            isChanged = markAsDone(index);
+            task = store.get(index);
+        }
+        if (isChanged) {
+            record(() -> storage.recordDone(this, index));
+        }
+        return task;
     }
 
     /**
@@ -80,8 +662,69 @@ public class TaskList extends Vector<Task> {
      * @throws SaveException This is thrown when being failed to open the save file
      */
     public Task deleteTask(int index) throws IOException, SaveException {
-        Task task = super.remove(index);
-        save();
+        Task task = remove(index);
+        record(() -> storage.recordDelete(this, index));
         return task;
     }
+
+    /**
+     * Mark many tasks in the list as done, save once on completion unless all of them were done already
+     * @param indexes Indexes of the tasks, start at 0, in increasing order
+     * @return The tasks marked, in the order of the list
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public List<Task> markTasksAsDone(int[] indexes) throws IOException, SaveException {
+        boolean isChanged;
+        List<Task> marked = new ArrayList<>(indexes.length);
+        synchronized (this) {
+            isChanged = markAllAsDone(indexes);
+            for (int index : indexes) {
+                marked.add(store.get(index));
+            }
+        }
+        if (isChanged) {
+            record(() -> storage.recordDoneAll(this, indexes));
+        }
+        return marked;
+    }
+
+    /**
+     * Delete many tasks in the list in a single pass and return them for the last time, save once on completion
+     * @param indexes Indexes of the tasks, start at 0, in increasing order
+     * @return The deleted tasks, in the order of the list
+     * @throws IOException This is thrown when object writing encounters an error
+     * @throws SaveException This is thrown when being failed to open the save file
+     */
+    public List<Task> deleteTasks(int[] indexes) throws IOException, SaveException {
+        List<Task> removed = removeAll(indexes);
+        if (indexes.length > 0) {
+            record(() -> storage.recordDeleteAll(this, indexes));
+        }
+        return removed;
+    }
+
+    protected enum ChangeType {
+        ADD,
+        SET,
+        DONE,
+        REMOVE
+    }
+
+    /**
+     * A change made during a transaction, with what is needed to undo it
+     */
+    protected static class Change {
+        protected ChangeType type;
+        // Index of the task changed, start at 0
+        protected int index;
+        // The task replaced or removed, null for other changes
+        protected Task task;
+
+        protected Change(ChangeType type, int index, Task task) {
+            this.type = type;
+            this.index = index;
+            this.task = task;
+        }
+    }
 }
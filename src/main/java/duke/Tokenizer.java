@@ -0,0 +1,117 @@
+package duke;
+
+/**
+ * A single-pass scanner splitting a line into tokens delimited by whitespaces.
+ * Tokens are kept as offsets into the line, in arrays reused from one line to the next, so no substring is created
+ * until a value is actually needed.
+ *
+ * Whitespaces are the same as those matched by the regular expression '\s': space, \t, \n, \x0B, \f and \r.
+ */
+public class Tokenizer {
+    protected static final int INITIAL_CAPACITY = 16;
+
+    protected String line = "";
+    protected int[] starts = new int[INITIAL_CAPACITY];
+    protected int[] ends = new int[INITIAL_CAPACITY];
+    protected int size = 0;
+
+    /**
+     * Split a new line into tokens, replacing the tokens of the previous line
+     * @param line The line to be split
+     * @return Number of tokens found
+     */
+    public int tokenize(String line) {
+        this.line = line;
+        size = 0;
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(line.charAt(i))) {
+                i += 1;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(line.charAt(i))) {
+                i += 1;
+            }
+            append(start, i);
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of tokens of the current line
+     * @return Number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the first character of a token
+     * @param index Index of the token, start at 0
+     * @return The first character
+     */
+    public char firstCharAt(int index) {
+        return line.charAt(starts[index]);
+    }
+
+    /**
+     * Get a token as a string
+     * @param index Index of the token, start at 0
+     * @param offset Number of characters to be skipped at the start of the token
+     * @return The token (without the skipped characters)
+     */
+    public String get(int index, int offset) {
+        return line.substring(starts[index] + offset, ends[index]);
+    }
+
+    /**
+     * Join a range of tokens with a single whitespace, as String.join(" ", ...) would do
+     * @param from Index of the first token, inclusive
+     * @param to Index of the last token, exclusive
+     * @return The joined tokens, or an empty string if the range is empty
+     */
+    public String join(int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        // Most lines are typed with single spaces, in which case the joined tokens are a plain substring
+        boolean isSingleSpaced = true;
+        for (int i = from + 1; i < to && isSingleSpaced; i += 1) {
+            isSingleSpaced = starts[i] == ends[i - 1] + 1 && line.charAt(ends[i - 1]) == ' ';
+        }
+        if (isSingleSpaced) {
+            return line.substring(starts[from], ends[to - 1]);
+        }
+
+        StringBuilder builder = new StringBuilder(ends[to - 1] - starts[from]);
+        for (int i = from; i < to; i += 1) {
+            if (i > from) {
+                builder.append(' ');
+            }
+            builder.append(line, starts[i], ends[i]);
+        }
+        return builder.toString();
+    }
+
+    protected void append(int start, int end) {
+        if (size == starts.length) {
+            int[] newStarts = new int[size * 2];
+            int[] newEnds = new int[size * 2];
+            System.arraycopy(starts, 0, newStarts, 0, size);
+            System.arraycopy(ends, 0, newEnds, 0, size);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size += 1;
+    }
+
+    protected static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
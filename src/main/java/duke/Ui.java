@@ -1,11 +1,20 @@
 package duke;
 
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 
 import duke.locale.English;
+import duke.locale.LocaleBundle;
+import duke.locale.MessageTemplate;
+import duke.metrics.Metrics;
+import duke.task.Task;
 
 /**
  * This Ui class handles all user input/output and has the necessary formatting functionality.
+ * Output is collected in a buffer and only written out by flush(), which happens before reading the next line.
  * It should be closed properly at the end of the program using close().
  */
 public class Ui implements AutoCloseable {
@@ -17,13 +26,22 @@ public class Ui implements AutoCloseable {
     // Used for internal 2nd-level indentation (e.g. print task)
     public static final String INTERNAL_INDENT = "\t";
 
-    public static final String LOCALE_CLASS_PREFIX = "duke.locale";
+    public static final String LOCALE_CLASS_PREFIX = LocaleBundle.LOCALE_CLASS_PREFIX;
     public static final String DEFAULT_LOCALE = "English";
     public static final Class<?> DEFAULT_LOCALE_CLASS = English.class;
 
+    public static final String LINE_SEPARATOR = System.lineSeparator();
+    // A buffer grown beyond this (e.g. by a long list) is dropped after flushing instead of being kept for reuse
+    public static final int MAX_RETAINED_BUFFER = 1 << 20;
+
     protected String indent;
     protected Scanner scanner;
-    protected Class<?> locale;
+    protected LocaleBundle locale;
+    protected PrintStream out;
+    // Output which has not been written yet
+    protected StringBuilder buffer = new StringBuilder();
+    // Held while writing out, so that output of other threads (e.g. reminders) is never mixed into a response
+    protected final Object outputLock = new Object();
 
     /**
      * Constructor of Ui class
@@ -39,51 +57,78 @@ public class Ui implements AutoCloseable {
      * @param indentCount Number of `indentCharacter` to be used for indentation
      * @param locale Locale of all output messages (fallback option: English)
      * @see English
+     * @see LocaleBundle
      */
     public Ui(char indentCharacter, int indentCount, String locale) {
-        indent = new String(new char[indentCount]).replace('\0', indentCharacter);
-        scanner = new Scanner(System.in);
+        this(indentCharacter, indentCount, locale, System.in, System.out);
+    }
 
-        // Load locale from class
-        String className = LOCALE_CLASS_PREFIX + locale;
-        try {
-            this.locale = Class.forName(className);
-        } catch (ClassNotFoundException e) {
-            // Cannot load a locale class, fall back to English
-            this.locale = DEFAULT_LOCALE_CLASS;
-        }
+    /**
+     * Constructor of Ui class, reading from and writing to the given streams instead of the console
+     * @param indentCharacter The specific character for indentation
+     * @param indentCount Number of `indentCharacter` to be used for indentation
+     * @param locale Locale of all output messages (fallback option: English)
+     * @param in Stream to read the user input from, which is closed by close()
+     * @param out Stream to write the output into
+     */
+    public Ui(char indentCharacter, int indentCount, String locale, InputStream in, PrintStream out) {
+        indent = new String(new char[indentCount]).replace('\0', indentCharacter);
+        scanner = new Scanner(in);
+        this.out = out;
+        // Messages missing in the locale (or the whole locale) fall back to English when it is loaded
+        this.locale = LocaleBundle.get(locale);
     }
 
     protected String getLocaleText(String key, Object ... args) {
+        MessageTemplate template = locale.getTemplate(key);
+        if (template == null) {
+            // Critical error - we cannot even get this key from the default locale
+            // Print out the error and return an empty string
+            printException(new IllegalArgumentException("Message not found in locale: " + key));
+            return "";
+        }
         try {
-            return String.format((String) locale.getDeclaredField(key).get(null), args);
+            return template.format(args);
         } catch (Exception e) {
-            // If it fails, fall back to default locale
-            try {
-                return String.format((String) DEFAULT_LOCALE_CLASS.getDeclaredField(key).get(null), args);
-            } catch (Exception ex) {
-                // Critical error - we cannot even get this key from the default locale
-                // Print out the error and return an empty string
-                printException(ex);
-                return "";
-            }
+            printException(e);
+            return "";
         }
     }
 
     /**
-     * Close the scanner instance initialized in constructor
+     * Write out all buffered output, then close the scanner instance initialized in constructor
      */
     @Override
     public void close() {
+        flush();
         scanner.close();
         scanner = null;
     }
 
+    /**
+     * Write out all buffered output with a single write
+     */
+    public void flush() {
+        synchronized (outputLock) {
+            if (buffer.length() > 0) {
+                out.print(buffer);
+                if (buffer.length() > MAX_RETAINED_BUFFER) {
+                    buffer = new StringBuilder();
+                } else {
+                    buffer.setLength(0);
+                }
+            }
+            out.flush();
+        }
+    }
+
     /**
      * Read a line (delimited by EOL characters)
+     * Buffered output is written out first, so that the user sees it before being asked for more
      * @return the line in the format of a string
      */
     public String read() {
+        flush();
         if (scanner == null || !scanner.hasNextLine()) {
             return null;
         }
@@ -97,9 +142,39 @@ public class Ui implements AutoCloseable {
      */
     public void print(String text, Object ... args) {
         // Pass to String.format to format the text using varargs provided
-        String[] lines = String.format(text, args).split("\n");
-        for (String line : lines) {
-            System.out.println(indent + line);
+        appendLines(String.format(text, args));
+    }
+
+    /**
+     * Append lines of text to the buffer, each with indentation
+     * The lines are the same as split("\n") gives, i.e. trailing empty lines are dropped
+     */
+    protected void appendLines(String text) {
+        appendLines(buffer, text);
+    }
+
+    /**
+     * Append lines of text to a builder, each with indentation
+     */
+    protected void appendLines(StringBuilder target, String text) {
+        int end = text.length();
+        if (end > 0) {
+            while (end > 0 && text.charAt(end - 1) == '\n') {
+                end -= 1;
+            }
+            if (end == 0) {
+                return;
+            }
+        }
+        int start = 0;
+        while (true) {
+            int newline = text.indexOf('\n', start);
+            if (newline < 0 || newline >= end) {
+                target.append(indent).append(text, start, end).append(LINE_SEPARATOR);
+                return;
+            }
+            target.append(indent).append(text, start, newline).append(LINE_SEPARATOR);
+            start = newline + 1;
         }
     }
 
@@ -122,29 +197,196 @@ public class Ui implements AutoCloseable {
 
     /**
      * Print out a task list, showing the at/by time specified
-     * @param tasks The task list (result) to be printed
+     * @param tasks The tasks (result) to be printed
      * @param dateTime The at/by time specified by the user for search
      */
-    public void printTaskList(TaskList tasks, DateTime dateTime) {
+    public void printTaskList(Iterator<Task> tasks, DateTime dateTime) {
         printTaskList(tasks, getLocaleText("TASK_LIST_AT_BY", dateTime));
     }
 
+    /**
+     * Print out a task list, showing the range of dates specified
+     * @param tasks The tasks (result) to be printed
+     * @param from The first date of the range specified by the user for search
+     * @param to The last date of the range specified by the user for search
+     */
+    public void printTaskList(Iterator<Task> tasks, DateTime from, DateTime to) {
+        printTaskList(tasks, getLocaleText("TASK_LIST_FROM_TO", from.toDateString(), to.toDateString()));
+    }
+
+    /**
+     * Print out the tasks due from a time on, showing that time
+     * @param tasks The tasks (result) to be printed, in chronological order
+     * @param from The time the tasks are due from
+     */
+    public void printUpcomingTasks(Iterator<Task> tasks, DateTime from) {
+        printTaskList(tasks, getLocaleText("TASK_LIST_UPCOMING", from));
+    }
+
+    /**
+     * Print out the tasks overdue at a time, showing that time
+     * @param tasks The tasks (result) to be printed, in chronological order
+     * @param to The time the tasks are overdue at
+     */
+    public void printOverdueTasks(Iterator<Task> tasks, DateTime to) {
+        printTaskList(tasks, getLocaleText("TASK_LIST_OVERDUE", to));
+    }
+
     /**
      * Print out a task list, showing additional text
      * @param tasks The task list to be printed
      * @param additionalText Additional text which will be appended at the end of the message
      */
     public void printTaskList(TaskList tasks, String additionalText) {
-        if (tasks.size() == 0) {
+        printTaskList(tasks.iterator(), additionalText);
+    }
+
+    /**
+     * Print out tasks numbered from 1, showing additional text
+     * Tasks are formatted one by one as they are taken from the iterator.
+     * @param tasks The tasks to be printed
+     * @param additionalText Additional text which will be appended at the end of the message
+     */
+    public void printTaskList(Iterator<Task> tasks, String additionalText) {
+        if (!tasks.hasNext()) {
             print(getLocaleText("TASK_LIST_EMPTY", additionalText));
             return;
         }
         print(getLocaleText("TASK_LIST", additionalText));
-        for (int i = 0; i < tasks.size(); i += 1) {
-            print("%d.%s%s", i + 1, INTERNAL_INDENT, tasks.get(i));
+        appendTasks(tasks, 1);
+    }
+
+    /**
+     * Print out a window of a task list, numbered as in the full list
+     * Only the tasks inside the window are formatted, no matter how long the list is.
+     * @param tasks The full task list
+     * @param from Index of the first task to be printed, start at 0
+     * @param to Index after the last task to be printed
+     */
+    public void printTaskList(TaskList tasks, int from, int to) {
+        int size = tasks.size();
+        to = Math.min(to, size);
+        if (from >= to) {
+            print(getLocaleText("TASK_LIST_EMPTY", ""));
+            return;
+        }
+        print(getLocaleText("TASK_LIST", getLocaleText("TASK_LIST_WINDOW", from + 1, to, size)));
+        appendTasks(tasks.iterator(from, to), from + 1);
+        if (to < size) {
+            print(getLocaleText("TASK_LIST_MORE", to + 1));
         }
     }
 
+    /**
+     * Append one numbered line per task to the buffer
+     */
+    protected void appendTasks(Iterator<Task> tasks, int firstNumber) {
+        long start = Metrics.phaseStart();
+        int number = firstNumber;
+        while (tasks.hasNext()) {
+            appendLines(number + "." + INTERNAL_INDENT + tasks.next());
+            number += 1;
+        }
+        Metrics.endRender(start);
+    }
+
+    /**
+     * Write out reminders of tasks right away, from any thread, framed by lines
+     * The reminders are written with a single write, as every response is, so they never end up in the middle of the
+     * response to a command. Output buffered for the current command stays in the buffer.
+     * @param tasks The tasks coming up, already rendered by the thread which could read them safely
+     * @param now The time the reminders are given at
+     */
+    public void printReminders(List<String> tasks, DateTime now) {
+        StringBuilder reminders = new StringBuilder();
+        appendLines(reminders, LONG_LINE);
+        appendLines(reminders, getLocaleText("REMINDER", now));
+        for (String task : tasks) {
+            appendLines(reminders, INTERNAL_INDENT + task);
+        }
+        appendLines(reminders, LONG_LINE);
+        synchronized (outputLock) {
+            out.print(reminders);
+            out.flush();
+        }
+    }
+
+    /**
+     * Print a message for tasks marked as done, followed by the tasks
+     * @param tasks The tasks marked
+     */
+    public void printDoneTasks(List<Task> tasks) {
+        printChangedTasks(tasks, "TASK_DONE", "TASKS_DONE", "NO_TASK_DONE");
+    }
+
+    /**
+     * Print a message for tasks removed from the list, followed by the tasks
+     * @param tasks The tasks removed
+     */
+    public void printRemovedTasks(List<Task> tasks) {
+        printChangedTasks(tasks, "TASK_REMOVED", "TASKS_REMOVED", "NO_TASK_REMOVED");
+    }
+
+    /**
+     * Print the message of a change in the singular or plural form, depending on the number of tasks changed
+     */
+    protected void printChangedTasks(List<Task> tasks, String singularKey, String pluralKey, String noneKey) {
+        if (tasks.isEmpty()) {
+            appendLines(getLocaleText(noneKey));
+            return;
+        }
+        appendLines(tasks.size() == 1 ? getLocaleText(singularKey) : getLocaleText(pluralKey, tasks.size()));
+        for (Task task : tasks) {
+            appendLines(INTERNAL_INDENT + task);
+        }
+    }
+
+    /**
+     * Print a message for a transaction begun
+     */
+    public void printTransactionBegun() {
+        print(getLocaleText("TRANSACTION_BEGUN"));
+    }
+
+    /**
+     * Print a message for a transaction committed
+     * @param changes Number of changes saved
+     */
+    public void printTransactionCommitted(int changes) {
+        print(getLocaleText("TRANSACTION_COMMITTED", changes));
+    }
+
+    /**
+     * Print a message for a transaction rolled back
+     * @param changes Number of changes undone
+     */
+    public void printTransactionRolledBack(int changes) {
+        print(getLocaleText("TRANSACTION_ROLLED_BACK", changes));
+    }
+
+    /**
+     * Print a message for metrics enabled or disabled
+     * @param isEnabled Whether metrics are enabled
+     */
+    public void printMetricsEnabled(boolean isEnabled) {
+        print(getLocaleText(isEnabled ? "METRICS_ENABLED" : "METRICS_DISABLED"));
+    }
+
+    /**
+     * Print a message for metrics reset
+     */
+    public void printMetricsReset() {
+        print(getLocaleText("METRICS_RESET"));
+    }
+
+    /**
+     * Print the latency and allocation of every type of command
+     * @param report Report of the metrics, one line per type of command
+     */
+    public void printMetricsReport(String report) {
+        print(getLocaleText("METRICS_REPORT", report));
+    }
+
     /**
      * Print a long horizontal line
      */
@@ -179,6 +421,14 @@ public class Ui implements AutoCloseable {
         printLine();
     }
 
+    /**
+     * Print a message asking for the name of the user
+     */
+    public void printUserPrompt() {
+        print(getLocaleText("USER_PROMPT"));
+        printLine();
+    }
+
     /**
      * Print a farewell message
      */
@@ -0,0 +1,286 @@
+package duke.bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A runner of benchmarks measuring the average time of an operation, in the manner of JMH in average time mode.
+ *
+ * Each benchmark runs for a number of warmup iterations, whose results are thrown away, then for a number of
+ * measurement iterations of a fixed duration each. An iteration calls the operation in batches of growing size until
+ * its duration is reached, so that reading the clock does not weigh on short operations. The score is the mean time
+ * per call over the measurement iterations, with the half-width of its 99.9% confidence interval as the error.
+ *
+ * Results can be written as JSON in the format of JMH (one result per line), and compared with those of an earlier
+ * run read back from such a file.
+ */
+public class BenchmarkRunner {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    public static final int DEFAULT_MEASUREMENT_ITERATIONS = 5;
+    public static final long DEFAULT_ITERATION_MILLIS = 500;
+    public static final String SCORE_UNIT = "us/op";
+
+    // Student's t at 99.95% for 1 to 10 degrees of freedom, beyond which the normal quantile is close enough
+    protected static final double[] T_QUANTILES = {636.6, 31.6, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59};
+    protected static final double NORMAL_QUANTILE = 3.29;
+
+    protected static final Pattern JSON_BENCHMARK = Pattern.compile("\"benchmark\": \"([^\"]*)\"");
+    protected static final Pattern JSON_PARAMS = Pattern.compile("\"params\": \\{([^}]*)\\}");
+    protected static final Pattern JSON_SCORE = Pattern.compile("\"score\": ([-0-9.eE]+)");
+
+    protected int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+    protected int measurementIterations = DEFAULT_MEASUREMENT_ITERATIONS;
+    protected long iterationNanos = DEFAULT_ITERATION_MILLIS * 1_000_000;
+    protected Pattern filter;
+    protected PrintStream out;
+    protected List<Result> results = new ArrayList<>();
+    // Scores of an earlier run by key, compared with each result when not null
+    protected Map<String, Double> baseline;
+    // Results of every call end up here, so that the JIT cannot drop the calls as dead code
+    protected volatile Object sink;
+
+    /**
+     * An operation to be measured
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * Run the operation once
+         * @return Any result of the operation, which is kept from being optimized away
+         * @throws Exception This is thrown when the operation fails, which stops the benchmark
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * Construct a runner
+     * @param filter Pattern of the names of the benchmarks to run (found anywhere in the name), null to run all
+     * @param out Stream to report each result into as soon as it is measured
+     */
+    public BenchmarkRunner(Pattern filter, PrintStream out) {
+        this.filter = filter;
+        this.out = out;
+    }
+
+    /**
+     * Setter for the number and duration of iterations
+     * @param warmupIterations Number of iterations run before measuring
+     * @param measurementIterations Number of iterations measured, at least 1
+     * @param iterationMillis Duration of each iteration in milliseconds
+     */
+    public void setIterations(int warmupIterations, int measurementIterations, long iterationMillis) {
+        if (measurementIterations < 1) {
+            throw new IllegalArgumentException("At least one iteration must be measured");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+    }
+
+    /**
+     * Setter for the scores of an earlier run, which each result is compared with
+     * @param baseline Scores by key, as returned by readScores()
+     */
+    public void setBaseline(Map<String, Double> baseline) {
+        this.baseline = baseline;
+    }
+
+    /**
+     * Check whether a benchmark is to be run, so that its setup can be skipped otherwise
+     * @param name Name of the benchmark
+     * @return Whether the benchmark passes the filter
+     */
+    public boolean isSelected(String name) {
+        return filter == null || filter.matcher(name).find();
+    }
+
+    /**
+     * Measure an operation, unless the benchmark is filtered out
+     * @param name Name of the benchmark
+     * @param params Parameters of the benchmark (e.g. the size of the list), in the order they are to be shown
+     * @param operation The operation to measure
+     * @throws Exception This is thrown when the operation fails
+     */
+    public void run(String name, Map<String, String> params, Operation operation) throws Exception {
+        if (!isSelected(name)) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i += 1) {
+            iterate(operation);
+        }
+        double[] rawData = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i += 1) {
+            rawData[i] = iterate(operation) / 1000;
+        }
+        Result result = new Result(name, params, rawData);
+        results.add(result);
+        report(result);
+    }
+
+    /**
+     * Get the results measured so far
+     * @return Results in the order they were measured
+     */
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Write all results measured so far into a file, as a JSON array in the format of JMH
+     * @param path Path of the file
+     * @throws IOException This is thrown when the file cannot be written
+     */
+    public void writeJson(Path path) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i += 1) {
+            json.append(results.get(i).toJson());
+            json.append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        Files.writeString(path, json);
+    }
+
+    /**
+     * Read the scores from a file written by writeJson()
+     * @param path Path of the file
+     * @return Scores by key of their result
+     * @throws IOException This is thrown when the file cannot be read
+     * @see Result#getKey()
+     */
+    public static Map<String, Double> readScores(Path path) throws IOException {
+        Map<String, Double> scores = new HashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            Matcher benchmark = JSON_BENCHMARK.matcher(line);
+            Matcher params = JSON_PARAMS.matcher(line);
+            Matcher score = JSON_SCORE.matcher(line);
+            if (benchmark.find() && params.find() && score.find()) {
+                scores.put(benchmark.group(1) + " {" + params.group(1) + "}", Double.parseDouble(score.group(1)));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Run the operation for one iteration
+     * @return Mean time per call in nanoseconds
+     */
+    protected double iterate(Operation operation) throws Exception {
+        long calls = 0;
+        long batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (long i = 0; i < batch; i += 1) {
+                sink = operation.run();
+            }
+            calls += batch;
+            elapsed = System.nanoTime() - start;
+            if (elapsed < iterationNanos / 16) {
+                batch *= 2;
+            }
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / calls;
+    }
+
+    protected void report(Result result) {
+        StringBuilder params = new StringBuilder();
+        result.params.forEach((key, value) -> params.append(key).append('=').append(value).append(' '));
+        out.printf(Locale.ROOT, "%-20s %-14s %14.3f ± %10.3f %s", result.name, params, result.score, result.error,
+                SCORE_UNIT);
+        Double previous = baseline == null ? null : baseline.get(result.getKey());
+        if (previous != null && previous > 0) {
+            out.printf(Locale.ROOT, "  %+7.1f%% vs baseline", (result.score / previous - 1) * 100);
+        }
+        out.println();
+    }
+
+    /**
+     * Result of a benchmark
+     */
+    public static class Result {
+        protected String name;
+        protected Map<String, String> params;
+        // Mean time per call of each measurement iteration, in microseconds
+        protected double[] rawData;
+        protected double score;
+        protected double error;
+
+        protected Result(String name, Map<String, String> params, double[] rawData) {
+            this.name = name;
+            this.params = new LinkedHashMap<>(params);
+            this.rawData = rawData;
+            double sum = 0;
+            for (double value : rawData) {
+                sum += value;
+            }
+            score = sum / rawData.length;
+            if (rawData.length < 2) {
+                error = Double.NaN;
+                return;
+            }
+            double squares = 0;
+            for (double value : rawData) {
+                squares += (value - score) * (value - score);
+            }
+            int degrees = rawData.length - 1;
+            double quantile = degrees <= T_QUANTILES.length ? T_QUANTILES[degrees - 1] : NORMAL_QUANTILE;
+            error = quantile * Math.sqrt(squares / degrees / rawData.length);
+        }
+
+        /**
+         * Get the key identifying the benchmark and its parameters, the same for a result read back by readScores()
+         * @return The key, e.g. "find {"size": "1000"}"
+         */
+        public String getKey() {
+            return name + " {" + paramsToJson() + "}";
+        }
+
+        /**
+         * Get the mean time per call
+         * @return Score in microseconds per call
+         */
+        public double getScore() {
+            return score;
+        }
+
+        protected String toJson() {
+            StringBuilder raw = new StringBuilder();
+            for (int i = 0; i < rawData.length; i += 1) {
+                raw.append(i > 0 ? ", " : "").append(number(rawData[i]));
+            }
+            return "{\"benchmark\": \"" + name + "\", \"mode\": \"avgt\", \"threads\": 1, \"forks\": 1, "
+                    + "\"jvm\": \"" + escape(System.getProperty("java.home")) + "\", "
+                    + "\"jdkVersion\": \"" + System.getProperty("java.version") + "\", "
+                    + "\"measurementIterations\": " + rawData.length + ", "
+                    + "\"params\": {" + paramsToJson() + "}, "
+                    + "\"primaryMetric\": {\"score\": " + number(score) + ", \"scoreError\": " + number(error)
+                    + ", \"scoreUnit\": \"" + SCORE_UNIT + "\", \"rawData\": [[" + raw + "]]}}";
+        }
+
+        protected String paramsToJson() {
+            StringBuilder json = new StringBuilder();
+            params.forEach((key, value) -> json.append(json.length() > 0 ? ", " : "")
+                    .append('"').append(escape(key)).append("\": \"").append(escape(value)).append('"'));
+            return json.toString();
+        }
+
+        protected static String number(double value) {
+            // JSON has no NaN, which JMH writes as a string as well
+            return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", value);
+        }
+
+        protected static String escape(String text) {
+            return text.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+    }
+}
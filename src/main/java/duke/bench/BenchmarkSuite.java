@@ -0,0 +1,208 @@
+package duke.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import duke.DateTime;
+import duke.Parser;
+import duke.Storage;
+import duke.TaskList;
+import duke.Ui;
+import duke.command.AgendaCommand;
+import duke.command.Command;
+
+/**
+ * Benchmarks of the parser, searching, saving and loading, dates and rendering, on synthetic task lists.
+ *
+ * Lists are generated with the same seed for every size, so that results of the same size can be compared between
+ * runs, e.g. before and after a change: write the results of one run with --json, then pass that file to the next
+ * run with --baseline. Benchmarks only depending on the size of the list are run once for every size.
+ *
+ * Usage: java duke.bench.BenchmarkSuite [--sizes 1000,100000,1000000] [--filter regex] [--seed n]
+ *     [--iterations warmup,measurement,millis] [--json file] [--baseline file]
+ * @see BenchmarkRunner
+ */
+public class BenchmarkSuite {
+    public static final int[] DEFAULT_SIZES = {1_000, 100_000, 1_000_000};
+    // Number of distinct inputs each benchmark cycles through, a power of 2
+    public static final int INPUT_COUNT = 1024;
+
+    protected BenchmarkRunner runner;
+    protected long seed;
+    protected Path directory;
+
+    /**
+     * Construct a suite
+     * @param runner Runner of the benchmarks
+     * @param seed Seed of all lists and inputs generated
+     * @param directory Directory to write save files into
+     */
+    public BenchmarkSuite(BenchmarkRunner runner, long seed, Path directory) {
+        this.runner = runner;
+        this.seed = seed;
+        this.directory = directory;
+    }
+
+    /**
+     * Entry point of the suite
+     * @param args Options as given in the usage
+     * @throws Exception This is thrown when a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        int[] sizes = DEFAULT_SIZES;
+        Pattern filter = null;
+        long seed = TaskListGenerator.DEFAULT_SEED;
+        int[] iterations = null;
+        Path json = null;
+        Path baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "--sizes":
+                sizes = Stream.of(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                break;
+            case "--filter":
+                filter = Pattern.compile(args[i + 1]);
+                break;
+            case "--seed":
+                seed = Long.parseLong(args[i + 1]);
+                break;
+            case "--iterations":
+                iterations = Stream.of(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                break;
+            case "--json":
+                json = Paths.get(args[i + 1]);
+                break;
+            case "--baseline":
+                baseline = Paths.get(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(filter, System.out);
+        if (iterations != null && iterations.length == 3) {
+            runner.setIterations(iterations[0], iterations[1], iterations[2]);
+        }
+        if (baseline != null) {
+            runner.setBaseline(BenchmarkRunner.readScores(baseline));
+        }
+        Path directory = Files.createTempDirectory("duke-bench");
+        try {
+            BenchmarkSuite suite = new BenchmarkSuite(runner, seed, directory);
+            suite.runWithoutList();
+            for (int size : sizes) {
+                suite.runWithList(size);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+        if (json != null) {
+            runner.writeJson(json);
+        }
+    }
+
+    /**
+     * Run the benchmarks which do not depend on the size of the list
+     * @throws Exception This is thrown when a benchmark fails
+     */
+    public void runWithoutList() throws Exception {
+        TaskListGenerator generator = new TaskListGenerator(seed);
+        String[] lines = new String[INPUT_COUNT];
+        String[] dateStrings = new String[INPUT_COUNT];
+        long[] epochSeconds = new long[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i += 1) {
+            lines[i] = generator.nextCommandLine();
+            DateTime dateTime = generator.nextDateTime();
+            dateStrings[i] = dateTime.toString();
+            epochSeconds[i] = dateTime.toEpochSecond();
+        }
+        Parser parser = new Parser(createUi(), new TaskList());
+        int[] next = {0};
+        runner.run("parse", Map.of(), () -> parser.parse(lines[next[0]++ & (INPUT_COUNT - 1)]));
+        runner.run("dateTimeParse", Map.of(), () -> new DateTime(dateStrings[next[0]++ & (INPUT_COUNT - 1)]));
+        // A new dateTime every time, as each one keeps its formatted string
+        runner.run("dateTimeFormat", Map.of(),
+                () -> DateTime.ofEpochSecond(epochSeconds[next[0]++ & (INPUT_COUNT - 1)]).toString());
+    }
+
+    /**
+     * Run the benchmarks on a list of the given size
+     * @param size Number of tasks in the list
+     * @throws Exception This is thrown when a benchmark fails
+     */
+    public void runWithList(int size) throws Exception {
+        TaskListGenerator generator = new TaskListGenerator(seed);
+        TaskList tasks = generator.generate(size);
+        Ui ui = createUi();
+        Parser parser = new Parser(ui, tasks);
+        Command[] finds = new Command[INPUT_COUNT];
+        Command[] searchDates = new Command[INPUT_COUNT];
+        Command[] searchRanges = new Command[INPUT_COUNT];
+        DateTime[] times = new DateTime[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i += 1) {
+            finds[i] = parser.parse("find " + generator.nextTag());
+            DateTime from = generator.nextDateTime();
+            searchDates[i] = parser.parse("searchdate " + from.toDateString());
+            DateTime to = DateTime.ofEpochSecond(from.toEpochSecond() + 7 * 24 * 3600L);
+            searchRanges[i] = parser.parse("searchdate " + from.toDateString() + " /to " + to.toDateString());
+            times[i] = generator.nextDateTime();
+        }
+        Map<String, String> params = Map.of("size", Integer.toString(size));
+        int[] next = {0};
+        runner.run("find", params, () -> execute(finds[next[0]++ & (INPUT_COUNT - 1)], ui));
+        runner.run("searchdate", params, () -> execute(searchDates[next[0]++ & (INPUT_COUNT - 1)], ui));
+        runner.run("searchdateWeek", params, () -> execute(searchRanges[next[0]++ & (INPUT_COUNT - 1)], ui));
+        // The agenda command reads the clock, so the list is queried and printed at generated times instead
+        runner.run("agendaNext", params, () -> {
+            DateTime now = times[next[0]++ & (INPUT_COUNT - 1)];
+            ui.printUpcomingTasks(tasks.findUpcoming(now, AgendaCommand.DEFAULT_COUNT), now);
+            ui.flush();
+            return ui;
+        });
+        runner.run("printTaskList", params, () -> {
+            ui.printTaskList(tasks);
+            ui.flush();
+            return ui;
+        });
+
+        if (runner.isSelected("save") || runner.isSelected("load")) {
+            Storage storage = new Storage(directory.resolve("size-" + size + ".save").toString());
+            runner.run("save", params, () -> {
+                storage.save(tasks);
+                return storage;
+            });
+            storage.save(tasks);
+            runner.run("load", params, () -> {
+                TaskList loaded = storage.load();
+                // Decode every task, as loading only maps the file
+                loaded.materialize();
+                return loaded;
+            });
+        }
+    }
+
+    protected static Object execute(Command command, Ui ui) throws Exception {
+        command.execute();
+        // Output is encoded and thrown away, as it would be written out after every command
+        ui.flush();
+        return command;
+    }
+
+    /**
+     * Create a user interface throwing away its output
+     */
+    protected static Ui createUi() {
+        return new Ui(Ui.DEFAULT_INDENT_CHARACTER, Ui.DEFAULT_INDENT_COUNT, Ui.DEFAULT_LOCALE,
+                System.in, new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
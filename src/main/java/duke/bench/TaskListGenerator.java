@@ -0,0 +1,145 @@
+package duke.bench;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import duke.DateTime;
+import duke.TaskList;
+import duke.exception.InvalidInputException;
+import duke.store.ChunkedTaskStore;
+import duke.store.TaskStore;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * A generator of synthetic tasks and command lines, which gives the same sequence every time for the same seed.
+ *
+ * Every description is a verb and a noun followed by one of TAG_COUNT tags (e.g. "buy milk #417"), so searching for
+ * a tag finds about 1 / TAG_COUNT of all tasks whatever the size of the list. Dates fall on the hour within DAY_RANGE
+ * days from 01/01/2021.
+ */
+public class TaskListGenerator {
+    public static final long DEFAULT_SEED = 42;
+    public static final int TAG_COUNT = 1000;
+    public static final long FIRST_EPOCH_SECOND = 1_609_459_200L;
+    public static final int DAY_RANGE = 730;
+    // Share of each type of task, in percent: the rest are events
+    public static final int TODO_PERCENT = 40;
+    public static final int DEADLINE_PERCENT = 35;
+    public static final int DONE_PERCENT = 30;
+
+    protected static final String[] VERBS = {"buy", "read", "call", "submit", "review", "book", "fix", "plan"};
+    protected static final String[] NOUNS = {"milk", "report", "mum", "assignment", "flight", "slides", "bike",
+        "dinner", "tutorial", "budget"};
+
+    protected Random random;
+
+    /**
+     * Construct a generator
+     * @param seed Seed of the sequence generated
+     */
+    public TaskListGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Generate a task list in the default store
+     * @param count Number of tasks in the list
+     * @return The task list generated, without storage
+     */
+    public TaskList generate(int count) {
+        return generate(count, ChunkedTaskStore::new);
+    }
+
+    /**
+     * Generate a task list
+     * @param count Number of tasks in the list
+     * @param storeFactory Factory of the store holding the tasks
+     * @return The task list generated, without storage
+     */
+    public TaskList generate(int count, Supplier<TaskStore> storeFactory) {
+        TaskList tasks = new TaskList(null, storeFactory.get());
+        for (int i = 0; i < count; i += 1) {
+            tasks.add(nextTask());
+        }
+        return tasks;
+    }
+
+    /**
+     * Generate a task of a random type, done or not
+     * @return The task generated
+     */
+    public Task nextTask() {
+        String description = nextDescription();
+        int type = random.nextInt(100);
+        Task task;
+        try {
+            if (type < TODO_PERCENT) {
+                task = new ToDo(description);
+            } else if (type < TODO_PERCENT + DEADLINE_PERCENT) {
+                task = new Deadline(description, nextDateTime());
+            } else {
+                task = new Event(description, nextDateTime());
+            }
+        } catch (InvalidInputException e) {
+            // Never happens, as every description generated is non-empty
+            throw new IllegalStateException(e);
+        }
+        if (random.nextInt(100) < DONE_PERCENT) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Generate a command line, as typed by a user
+     * @return A line of one of the commands with arguments, which may or may not name an existing task
+     */
+    public String nextCommandLine() {
+        switch (random.nextInt(8)) {
+        case 0:
+            return "todo " + nextDescription();
+        case 1:
+            return "deadline " + nextDescription() + " /by " + nextDateTime();
+        case 2:
+            return "event " + nextDescription() + " /at " + nextDateTime();
+        case 3:
+            return "list /page " + (random.nextInt(50) + 1) + " /size 20";
+        case 4:
+            return "find " + nextTag();
+        case 5:
+            return "searchdate " + nextDateTime().toDateString() + " /to " + nextDateTime().toDateString();
+        case 6:
+            return "done " + (random.nextInt(1000) + 1);
+        default:
+            return "delete " + (random.nextInt(1000) + 1);
+        }
+    }
+
+    /**
+     * Generate a description of a task
+     * @return A verb and a noun followed by a tag, e.g. "buy milk #417"
+     */
+    public String nextDescription() {
+        return VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + nextTag();
+    }
+
+    /**
+     * Generate a tag, found in about 1 / TAG_COUNT of all descriptions
+     * @return A tag, e.g. "#417" or "#007"
+     */
+    public String nextTag() {
+        // Padded to the same width, so that no tag is found inside another one
+        return String.format("#%03d", random.nextInt(TAG_COUNT));
+    }
+
+    /**
+     * Generate a date and time on the hour within the range of all generated dates
+     * @return The date and time generated
+     */
+    public DateTime nextDateTime() {
+        return DateTime.ofEpochSecond(FIRST_EPOCH_SECOND + random.nextInt(DAY_RANGE * 24) * 3600L);
+    }
+}
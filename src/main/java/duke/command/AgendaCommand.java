@@ -0,0 +1,35 @@
+package duke.command;
+
+import java.util.HashMap;
+
+import duke.DateTime;
+import duke.TaskList;
+import duke.Ui;
+import duke.exception.InvalidInputException;
+
+/**
+ * Print out the deadlines and events not done yet in chronological order
+ * With /next N, only the first N tasks due from now on are printed (DEFAULT_COUNT of them by default).
+ * With /overdue, the tasks due before now are printed instead, only the first N of them when followed by N.
+ */
+public class AgendaCommand extends Command {
+    public static final int DEFAULT_COUNT = 20;
+
+    public AgendaCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
+        super(ui, tasks, arguments);
+    }
+
+    @Override
+    public void execute() throws InvalidInputException {
+        DateTime now = DateTime.now();
+        String overdue = arguments.get("overdue");
+        if (overdue != null) {
+            int limit = overdue.length() == 0 ? Integer.MAX_VALUE : parsePositive(overdue);
+            ui.printOverdueTasks(tasks.findOverdue(now, limit), now);
+            return;
+        }
+        String next = arguments.get("next");
+        int limit = next == null ? DEFAULT_COUNT : parsePositive(next);
+        ui.printUpcomingTasks(tasks.findUpcoming(now, limit), now);
+    }
+}
@@ -0,0 +1,26 @@
+package duke.command;
+
+import java.util.HashMap;
+
+import duke.TaskList;
+import duke.Ui;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
+
+/**
+ * Begin a batch, in which changes are only saved once it is committed
+ */
+public class BeginCommand extends Command {
+    public BeginCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
+        super(ui, tasks, arguments);
+    }
+
+    @Override
+    public void execute() throws InvalidInputException {
+        if (tasks.isInTransaction()) {
+            throw new InvalidInputException(InputExceptionType.TRANSACTION_OPEN);
+        }
+        tasks.begin();
+        ui.printTransactionBegun();
+    }
+}
@@ -1,11 +1,13 @@
 package duke.command;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.HashMap;
 
 import duke.TaskList;
 import duke.Ui;
 import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
 import duke.exception.SaveException;
 
 /**
@@ -28,4 +30,50 @@ public abstract class Command {
     }
 
     public abstract void execute() throws InvalidInputException, IOException, SaveException;
+
+    /**
+     * Parse a list of task numbers and ranges of them, e.g. "3-900,1200"
+     * @param text Task numbers (start at 1) or ranges of them (both ends included), separated by commas
+     * @return Indexes of all tasks listed, start at 0, in increasing order without duplicates
+     * @throws InvalidInputException This is thrown when a number is not an integer or not in the list
+     */
+    protected int[] parseIndexes(String text) throws InvalidInputException {
+        BitSet indexes = new BitSet();
+        for (String item : text.replace(" ", "").split(",", -1)) {
+            // A dash at the start is the sign of a (negative) number, not a range
+            int dash = item.indexOf('-', 1);
+            try {
+                int first = Integer.parseInt(dash < 0 ? item : item.substring(0, dash));
+                int last = dash < 0 ? first : Integer.parseInt(item.substring(dash + 1));
+                if (first < 1 || last > tasks.size() || first > last) {
+                    throw new InvalidInputException(InputExceptionType.INDEX_OUT_OF_BOUND);
+                }
+                indexes.set(first - 1, last);
+            } catch (NumberFormatException e) {
+                throw new InvalidInputException(InputExceptionType.NOT_INTEGER, e);
+            }
+        }
+        return indexes.stream().toArray();
+    }
+
+    /**
+     * Parse a positive integer, e.g. a task number or a count
+     * @param text The text to be parsed
+     * @return The integer parsed
+     * @throws InvalidInputException This is thrown when the text is empty, not an integer or not positive
+     */
+    protected static int parsePositive(String text) throws InvalidInputException {
+        if (text.length() == 0) {
+            throw new InvalidInputException(InputExceptionType.EMPTY_INDEX);
+        }
+        try {
+            int value = Integer.parseInt(text);
+            if (value < 1) {
+                throw new InvalidInputException(InputExceptionType.INDEX_OUT_OF_BOUND);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException(InputExceptionType.NOT_INTEGER, e);
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package duke.command;
+
+import java.util.HashMap;
+
+import duke.TaskList;
+import duke.Ui;
+
+/**
+ * Constructor of a command class, as registered in the command registry
+ * @see CommandRegistry
+ */
+@FunctionalInterface
+public interface CommandFactory {
+    Command create(Ui ui, TaskList tasks, HashMap<String, String> arguments);
+}
@@ -0,0 +1,144 @@
+package duke.command;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import duke.TaskList;
+import duke.Ui;
+
+/**
+ * A registry mapping command names (the 1st token of a command line) to the factories of their command classes.
+ *
+ * Built-in commands are registered up front. A name which is not registered is looked up once as the class
+ * 'duke.command.<Name>Command', like the parser used to do for every line; the result of this lookup is cached,
+ * whether a class is found or not. Plugin commands can be added with register(), and any command can be taken away
+ * with disable().
+ */
+public class CommandRegistry {
+    public static final String COMMAND_CLASS_PREFIX = "duke.command.";
+    public static final String COMMAND_CLASS_SUFFIX = "Command";
+    // Upper bound of the names remembered as unknown, so that random input cannot grow the cache forever
+    public static final int MAX_UNKNOWN_NAMES = 1024;
+
+    private static final CommandRegistry DEFAULT_REGISTRY = createDefault();
+
+    protected Map<String, CommandFactory> factories = new ConcurrentHashMap<>();
+    protected Set<String> unknownNames = ConcurrentHashMap.newKeySet();
+    // Names which are never looked up, not even as a command class
+    protected Set<String> disabledNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the registry shared by all parsers which are not given one
+     * @return The default registry
+     */
+    public static CommandRegistry getDefault() {
+        return DEFAULT_REGISTRY;
+    }
+
+    /**
+     * Construct a registry with all built-in commands registered
+     * @return The registry constructed
+     */
+    public static CommandRegistry createDefault() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.register("agenda", AgendaCommand::new);
+        registry.register("begin", BeginCommand::new);
+        registry.register("bye", ByeCommand::new);
+        registry.register("commit", CommitCommand::new);
+        registry.register("deadline", DeadlineCommand::new);
+        registry.register("delete", DeleteCommand::new);
+        registry.register("done", DoneCommand::new);
+        registry.register("event", EventCommand::new);
+        registry.register("find", FindCommand::new);
+        registry.register("list", ListCommand::new);
+        registry.register("rollback", RollbackCommand::new);
+        registry.register("searchdate", SearchdateCommand::new);
+        registry.register("stats", StatsCommand::new);
+        registry.register("todo", TodoCommand::new);
+        return registry;
+    }
+
+    /**
+     * Register a command, replacing any command registered with the same name
+     * @param name Name of the command, i.e. the 1st token of its command line
+     * @param factory Factory constructing the command
+     */
+    public void register(String name, CommandFactory factory) {
+        factories.put(name, factory);
+        unknownNames.remove(name);
+        disabledNames.remove(name);
+    }
+
+    /**
+     * Disable a command, so that its name is treated as unknown from now on
+     * @param name Name of the command, i.e. the 1st token of its command line
+     */
+    public void disable(String name) {
+        disabledNames.add(name);
+        factories.remove(name);
+    }
+
+    /**
+     * Find the factory of a command
+     * @param name Name of the command, i.e. the 1st token of its command line
+     * @return The factory, or null if no such command exists
+     */
+    public CommandFactory lookup(String name) {
+        if (disabledNames.contains(name)) {
+            return null;
+        }
+        CommandFactory factory = factories.get(name);
+        if (factory != null || unknownNames.contains(name)) {
+            return factory;
+        }
+
+        factory = findCommandClass(name);
+        if (factory != null) {
+            factories.put(name, factory);
+        } else {
+            if (unknownNames.size() >= MAX_UNKNOWN_NAMES) {
+                unknownNames.clear();
+            }
+            unknownNames.add(name);
+        }
+        return factory;
+    }
+
+    /**
+     * Look for a command class named after the command (by capitalizing its first character)
+     * @param name Name of the command
+     * @return A factory invoking the constructor of the class, or null if there is no such command class
+     */
+    protected CommandFactory findCommandClass(String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        String className = COMMAND_CLASS_PREFIX + name.substring(0, 1).toUpperCase() + name.substring(1)
+                + COMMAND_CLASS_SUFFIX;
+        MethodHandle constructor;
+        try {
+            Class<?> cls = Class.forName(className);
+            if (!Command.class.isAssignableFrom(cls)) {
+                return null;
+            }
+            constructor = MethodHandles.publicLookup().findConstructor(cls,
+                    MethodType.methodType(void.class, Ui.class, TaskList.class, HashMap.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+        return (ui, tasks, arguments) -> {
+            try {
+                return (Command) constructor.invoke(ui, tasks, arguments);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package duke.command;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import duke.TaskList;
+import duke.Ui;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
+import duke.exception.SaveException;
+
+/**
+ * End a batch, saving all changes made in it at once
+ */
+public class CommitCommand extends Command {
+    public CommitCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
+        super(ui, tasks, arguments);
+    }
+
+    @Override
+    public void execute() throws InvalidInputException, IOException, SaveException {
+        if (!tasks.isInTransaction()) {
+            throw new InvalidInputException(InputExceptionType.NO_TRANSACTION);
+        }
+        ui.printTransactionCommitted(tasks.commit());
+    }
+}
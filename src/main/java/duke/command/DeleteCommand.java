@@ -1,8 +1,11 @@
 package duke.command;
 
 import java.io.IOException;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 
+import duke.DateTime;
 import duke.TaskList;
 import duke.Ui;
 import duke.exception.InvalidInputException;
@@ -11,7 +14,11 @@ import duke.exception.SaveException;
 import duke.task.Task;
 
 /**
- * Delete a task from the task list
+ * Delete tasks from the task list
+ * Takes a task number, or a list of numbers and ranges (e.g. 3-900,1200). With /done, all tasks done are deleted.
+ * With /before DATE, all tasks dated before this date (or this time, if one is given) are deleted. Only one of the
+ * three can be given at a time.
+ * Many tasks are deleted in a single pass and saved at once.
  */
 public class DeleteCommand extends Command {
     public DeleteCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
@@ -21,22 +28,47 @@ public class DeleteCommand extends Command {
     @Override
     public void execute() throws InvalidInputException, IOException, SaveException {
         String indexString = arguments.get("payload");
-        if (indexString == null) {
-            // An index must be provided for the task to be marked "done"
+        String before = arguments.get("before");
+        boolean hasIndexes = indexString != null && !indexString.isEmpty();
+        boolean isDone = arguments.containsKey("done");
+        if (hasIndexes && (isDone || before != null) || isDone && before != null) {
+            throw new InvalidInputException(InputExceptionType.CONFLICTING_OPTIONS);
+        }
+        int[] indexes;
+        if (isDone) {
+            indexes = tasks.indexesOf(Task::isDone);
+        } else if (before != null) {
+            indexes = findBefore(before);
+        } else if (indexString == null) {
+            // An index must be provided for the task to be deleted
             throw new InvalidInputException(InputExceptionType.EMPTY_INDEX);
+        } else {
+            indexes = parseIndexes(indexString);
         }
-        try {
-            int index = Integer.parseInt(indexString);
-            if (index > tasks.size() || index < 1) {
-                // This index is out of the boundary of our database
-                throw new InvalidInputException(InputExceptionType.INDEX_OUT_OF_BOUND);
-            }
 
-            Task task = tasks.remove(index - 1);
-            ui.print("Sure! I've removed this task:");
-            ui.print("\t" + task);
-        } catch (NumberFormatException e) {
-            throw new InvalidInputException(InputExceptionType.NOT_INTEGER, e);
+        if (indexes.length == 1 && hasIndexes) {
+            ui.printRemovedTasks(List.of(tasks.deleteTask(indexes[0])));
+            return;
+        }
+        ui.printRemovedTasks(tasks.deleteTasks(indexes));
+    }
+
+    protected int[] findBefore(String text) throws InvalidInputException {
+        if (text.length() == 0) {
+            throw new InvalidInputException(InputExceptionType.NO_BEFORE_DATE);
+        }
+        DateTime dateTime;
+        try {
+            dateTime = new DateTime(text);
+        } catch (DateTimeParseException e) {
+            throw new InvalidInputException(InputExceptionType.MALFORMED_DATE, e);
+        }
+        if (dateTime.hasTime()) {
+            long epochSecond = dateTime.toEpochSecond();
+            return tasks.indexesOf(task -> task.getDateTime() != null
+                    && task.getDateTime().toEpochSecond() < epochSecond);
         }
+        long epochDay = dateTime.toEpochDay();
+        return tasks.indexesOf(task -> task.getDateTime() != null && task.getDateTime().toEpochDay() < epochDay);
     }
 }
@@ -2,16 +2,17 @@ package duke.command;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 
 import duke.TaskList;
 import duke.Ui;
 import duke.exception.InvalidInputException;
 import duke.exception.InvalidInputException.InputExceptionType;
 import duke.exception.SaveException;
-import duke.task.Task;
 
 /**
- * Mark a task in the task list as done
+ * Mark tasks in the task list as done
+ * Takes a task number, or a list of numbers and ranges (e.g. 3-900,1200) which are all marked and saved at once.
  */
 public class DoneCommand extends Command {
     public DoneCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
@@ -24,23 +25,12 @@ public class DoneCommand extends Command {
         if (indexString == null) {
             // An index must be provided for the task to be marked "done"
             throw new InvalidInputException(InputExceptionType.EMPTY_INDEX);
-        } else {
-            try {
-                int index = Integer.parseInt(indexString);
-                if (index > tasks.size() || index < 1) {
-                    // This index is out of the boundary of our database
-                    throw new InvalidInputException(InputExceptionType.INDEX_OUT_OF_BOUND);
-                }
-
-                Task task = tasks.get(index - 1);
-                task.markAsDone();
-                tasks.setTask(index - 1, task);
-
-                ui.print("Nice! I've marked this task as done:");
-                ui.print("\t" + task);
-            } catch (NumberFormatException e) {
-                throw new InvalidInputException(InputExceptionType.NOT_INTEGER, e);
-            }
         }
+        int[] indexes = parseIndexes(indexString);
+        if (indexes.length == 1) {
+            ui.printDoneTasks(List.of(tasks.markTaskAsDone(indexes[0])));
+            return;
+        }
+        ui.printDoneTasks(tasks.markTasksAsDone(indexes));
     }
 }
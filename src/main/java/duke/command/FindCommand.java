@@ -1,6 +1,7 @@
 package duke.command;
 
 import java.util.HashMap;
+import java.util.Iterator;
 
 import duke.TaskList;
 import duke.Ui;
@@ -22,12 +23,7 @@ public class FindCommand extends Command {
         if (needle.length() == 0) {
             throw new InvalidInputException(InputExceptionType.EMPTY_DESCRIPTION);
         }
-        TaskList result = new TaskList(null);
-        for (Task task : tasks) {
-            if (task.toString().contains(needle)) {
-                result.add(task);
-            }
-        }
+        Iterator<Task> result = tasks.find(needle);
         ui.printTaskList(result, " related to '" + needle + "'");
     }
 }
@@ -4,17 +4,42 @@ import java.util.HashMap;
 
 import duke.TaskList;
 import duke.Ui;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
 
 /**
  * Print out everything in the list, index starts from 1
+ * With /page N (and optionally /size M), only the N-th page of M tasks is printed.
+ * With /from K (and optionally /size M), only M tasks starting from task K are printed.
  */
 public class ListCommand extends Command {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
     public ListCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
         super(ui, tasks, arguments);
     }
 
     @Override
-    public void execute() {
-        ui.printTaskList(tasks);
+    public void execute() throws InvalidInputException {
+        String page = arguments.get("page");
+        String from = arguments.get("from");
+        String size = arguments.get("size");
+        if (page == null && from == null && size == null) {
+            ui.printTaskList(tasks);
+            return;
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : parsePositive(size);
+        long start;
+        if (from != null) {
+            start = parsePositive(from) - 1;
+        } else {
+            start = ((page == null ? 1 : parsePositive(page)) - 1L) * pageSize;
+        }
+        if (start > 0 && start >= tasks.size()) {
+            // Nothing on this page, except for the 1st page of an empty list
+            throw new InvalidInputException(InputExceptionType.INDEX_OUT_OF_BOUND);
+        }
+        ui.printTaskList(tasks, (int) start, (int) Math.min(start + pageSize, Integer.MAX_VALUE));
     }
 }
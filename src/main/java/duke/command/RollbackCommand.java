@@ -0,0 +1,25 @@
+package duke.command;
+
+import java.util.HashMap;
+
+import duke.TaskList;
+import duke.Ui;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
+
+/**
+ * End a batch, undoing all changes made in it
+ */
+public class RollbackCommand extends Command {
+    public RollbackCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
+        super(ui, tasks, arguments);
+    }
+
+    @Override
+    public void execute() throws InvalidInputException {
+        if (!tasks.isInTransaction()) {
+            throw new InvalidInputException(InputExceptionType.NO_TRANSACTION);
+        }
+        ui.printTransactionRolledBack(tasks.rollback());
+    }
+}
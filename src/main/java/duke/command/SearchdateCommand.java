@@ -8,10 +8,9 @@ import duke.TaskList;
 import duke.Ui;
 import duke.exception.InvalidInputException;
 import duke.exception.InvalidInputException.InputExceptionType;
-import duke.task.Task;
 
 /**
- * Find tasks at a specific date and print out the list
+ * Find tasks at a specific date (or between two dates given with /to) and print out the list
  */
 public class SearchdateCommand extends Command {
     public SearchdateCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
@@ -27,13 +26,16 @@ public class SearchdateCommand extends Command {
         }
         try {
             DateTime dateTime = new DateTime(payload);
-            TaskList result = new TaskList();
-            for (Task task : tasks) {
-                if (task.isSameDate(dateTime)) {
-                    result.add(task);
-                }
+            String to = arguments.get("to");
+            if (to == null) {
+                ui.printTaskList(tasks.searchDate(dateTime), dateTime);
+                return;
             }
-            ui.printTaskList(result, dateTime);
+            if (to.length() == 0) {
+                throw new InvalidInputException(InputExceptionType.NO_SEARCH_DATE);
+            }
+            DateTime toDateTime = new DateTime(to);
+            ui.printTaskList(tasks.searchDate(dateTime, toDateTime), dateTime, toDateTime);
         } catch (DateTimeParseException e) {
             throw new InvalidInputException(InputExceptionType.MALFORMED_DATE, e);
         }
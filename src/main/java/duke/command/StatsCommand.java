@@ -0,0 +1,45 @@
+package duke.command;
+
+import java.util.HashMap;
+
+import duke.TaskList;
+import duke.Ui;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
+import duke.metrics.Metrics;
+
+/**
+ * Print out the latency and allocation of every type of command measured so far
+ * With on or off, start or stop measuring commands. With reset, forget all measurements so far.
+ */
+public class StatsCommand extends Command {
+    public StatsCommand(Ui ui, TaskList tasks, HashMap<String, String> arguments) {
+        super(ui, tasks, arguments);
+    }
+
+    @Override
+    public void execute() throws InvalidInputException {
+        Metrics metrics = Metrics.getInstance();
+        String option = arguments.getOrDefault("payload", "");
+        switch (option) {
+        case "":
+            if (metrics.isEnabled()) {
+                ui.printMetricsReport(metrics.getReport());
+            } else {
+                ui.printMetricsEnabled(false);
+            }
+            break;
+        case "on":
+        case "off":
+            metrics.setEnabled(option.equals("on"));
+            ui.printMetricsEnabled(metrics.isEnabled());
+            break;
+        case "reset":
+            metrics.reset();
+            ui.printMetricsReset();
+            break;
+        default:
+            throw new InvalidInputException(InputExceptionType.UNKNOWN_STATS_OPTION);
+        }
+    }
+}
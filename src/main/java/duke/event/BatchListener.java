@@ -0,0 +1,16 @@
+package duke.event;
+
+import java.util.List;
+
+/**
+ * A subscriber told about changes in batches, in a thread of its own
+ * @see BatchingSubscriber
+ */
+@FunctionalInterface
+public interface BatchListener {
+    /**
+     * Handle the changes made since the last batch
+     * @param events The changes, in the order they were made
+     */
+    void onEvents(List<TaskEvent> events);
+}
@@ -0,0 +1,138 @@
+package duke.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A subscription collecting changes as they are made, and delivering them in batches from a thread of its own.
+ *
+ * The thread waits for a change, then for more changes until the first one has waited for the maximum delay or the
+ * batch is full, and delivers them all with a single call. A subscriber falling behind thus gets fewer, larger
+ * batches instead of holding up the thread making the changes.
+ *
+ * close() delivers whatever is still waiting before returning. A runtime error thrown by the subscriber does not
+ * stop the deliveries, and is thrown again by close().
+ */
+public class BatchingSubscriber implements TaskListener, AutoCloseable {
+    protected BatchListener listener;
+    protected long maxDelay;
+    protected int maxBatchSize;
+    // Bus this subscription is registered with, null if none
+    protected TaskEventBus bus;
+
+    // Guards all attributes below, and is notified whenever one of them changes
+    protected final Object lock = new Object();
+    protected ArrayList<TaskEvent> pending = new ArrayList<>();
+    protected long pendingSince;
+    protected RuntimeException failure;
+    protected Thread deliverer;
+    protected boolean isClosed = false;
+
+    /**
+     * Construct a subscription
+     * @param listener The subscriber
+     * @param maxDelay Longest time in milliseconds a change may wait for more changes before it is delivered
+     * @param maxBatchSize Largest number of changes delivered at once
+     */
+    public BatchingSubscriber(BatchListener listener, long maxDelay, int maxBatchSize) {
+        this.listener = listener;
+        this.maxDelay = maxDelay;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void onEvent(TaskEvent event) {
+        synchronized (lock) {
+            if (isClosed) {
+                return;
+            }
+            if (pending.isEmpty()) {
+                pendingSince = System.currentTimeMillis();
+            }
+            pending.add(event);
+            if (pending.size() == 1 || pending.size() >= maxBatchSize) {
+                lock.notifyAll();
+            }
+            if (deliverer == null) {
+                deliverer = new Thread(this::runDeliverer, "duke-event-deliverer");
+                deliverer.setDaemon(true);
+                deliverer.start();
+            }
+        }
+    }
+
+    /**
+     * Stop collecting changes, deliver all changes still waiting, then stop the thread delivering them
+     * @throws RuntimeException This is thrown when the subscriber has failed on a batch
+     */
+    @Override
+    public void close() {
+        if (bus != null) {
+            bus.remove(this);
+        }
+        Thread thread;
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+            thread = deliverer;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            RuntimeException e = failure;
+            failure = null;
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Main loop of the delivering thread
+     */
+    protected void runDeliverer() {
+        while (true) {
+            List<TaskEvent> batch;
+            synchronized (lock) {
+                try {
+                    while (pending.isEmpty() && !isClosed) {
+                        lock.wait();
+                    }
+                    // Let more changes pile up until the batch is full or the oldest change has waited long enough
+                    long delay = pendingSince + maxDelay - System.currentTimeMillis();
+                    while (pending.size() < maxBatchSize && !isClosed && delay > 0) {
+                        lock.wait(delay);
+                        delay = pendingSince + maxDelay - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    isClosed = true;
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (pending.size() <= maxBatchSize) {
+                    batch = pending;
+                    pending = new ArrayList<>();
+                } else {
+                    batch = new ArrayList<>(pending.subList(0, maxBatchSize));
+                    pending.subList(0, maxBatchSize).clear();
+                }
+                pendingSince = System.currentTimeMillis();
+            }
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+}
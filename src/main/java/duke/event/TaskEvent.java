@@ -0,0 +1,110 @@
+package duke.event;
+
+import duke.task.Task;
+
+/**
+ * A change made to a task list, as published to the subscribers of its event bus.
+ *
+ * Every event carries the index of the task changed (start at 0) as it is right when the event is published, and the
+ * id given to the task by the task store. Applying events in the order they are published keeps a copy of the list
+ * in step with it: many tasks removed at once are published from the last one to the first, so that every index is
+ * still valid when its event is applied.
+ * @see TaskEventBus
+ */
+public abstract class TaskEvent {
+    protected int index;
+    protected long id;
+    protected Task task;
+
+    protected TaskEvent(int index, long id, Task task) {
+        this.index = index;
+        this.id = id;
+        this.task = task;
+    }
+
+    /**
+     * Get the index of the task changed
+     * @return Index of the task, start at 0, or -1 if the change is not about a single task
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the id of the task changed, as given by the task store
+     * @return Id of the task
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the task changed
+     * @return The task added, replacing another one, removed or marked as done, null if there is none
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + index + ", " + id + ", " + task + ")";
+    }
+
+    /**
+     * A task appended to the end of the list
+     */
+    public static class Added extends TaskEvent {
+        public Added(int index, long id, Task task) {
+            super(index, id, task);
+        }
+    }
+
+    /**
+     * A task replacing another one, which it takes the id of
+     */
+    public static class Replaced extends TaskEvent {
+        protected Task oldTask;
+
+        public Replaced(int index, long id, Task oldTask, Task task) {
+            super(index, id, task);
+            this.oldTask = oldTask;
+        }
+
+        /**
+         * Get the task replaced
+         * @return The task which used to be at the index
+         */
+        public Task getOldTask() {
+            return oldTask;
+        }
+    }
+
+    /**
+     * A task removed from the list, moving all tasks after it one index forward
+     */
+    public static class Removed extends TaskEvent {
+        public Removed(int index, long id, Task task) {
+            super(index, id, task);
+        }
+    }
+
+    /**
+     * A task not done before which has been marked as done
+     */
+    public static class MarkedDone extends TaskEvent {
+        public MarkedDone(int index, long id, Task task) {
+            super(index, id, task);
+        }
+    }
+
+    /**
+     * The whole content of the list has changed (e.g. a transaction rolled back), so anything derived from it has to
+     * be built again
+     */
+    public static class Reset extends TaskEvent {
+        public Reset() {
+            super(-1, -1, null);
+        }
+    }
+}
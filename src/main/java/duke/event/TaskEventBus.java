@@ -0,0 +1,90 @@
+package duke.event;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The feed of changes made to a task list, which every change of the list goes through.
+ *
+ * Synchronous subscribers are called in the thread making the change, while the list is locked, so they see every
+ * change in order and never see the list in between two changes. Batched subscribers get the changes later in a
+ * thread of their own, a batch at a time, and must not expect the list to still be as it was after the change.
+ */
+public class TaskEventBus implements AutoCloseable {
+    protected CopyOnWriteArrayList<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    protected CopyOnWriteArrayList<BatchingSubscriber> batchingSubscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribe to every change, in the thread making it
+     * @param listener The subscriber
+     */
+    public void subscribe(TaskListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Subscribe to every change, in batches delivered by a thread of their own
+     * @param listener The subscriber
+     * @param maxDelay Longest time in milliseconds a change may wait for more changes before it is delivered
+     * @param maxBatchSize Largest number of changes delivered at once
+     * @return The subscription, to be closed once changes are no longer needed
+     */
+    public BatchingSubscriber subscribeBatched(BatchListener listener, long maxDelay, int maxBatchSize) {
+        BatchingSubscriber subscriber = new BatchingSubscriber(listener, maxDelay, maxBatchSize);
+        subscriber.bus = this;
+        batchingSubscribers.add(subscriber);
+        subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Stop telling a subscriber about changes
+     * @param listener The subscriber
+     */
+    public void unsubscribe(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    protected void remove(BatchingSubscriber subscriber) {
+        listeners.remove(subscriber);
+        batchingSubscribers.remove(subscriber);
+    }
+
+    /**
+     * Check whether anyone is to be told about changes, so that events need not be created otherwise
+     * @return Whether there is any subscriber
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Tell every subscriber about a change
+     * @param event The change made
+     */
+    public void publish(TaskEvent event) {
+        for (TaskListener listener : listeners) {
+            listener.onEvent(event);
+        }
+    }
+
+    /**
+     * Deliver the changes still waiting in every batched subscription, then close them
+     * @throws RuntimeException This is thrown when a batched subscriber has failed, once all of them are closed
+     */
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (BatchingSubscriber subscriber : batchingSubscribers) {
+            try {
+                subscriber.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package duke.event;
+
+/**
+ * A subscriber told about every change right after it is made, in the thread making it
+ */
+@FunctionalInterface
+public interface TaskListener {
+    /**
+     * Handle a change. This is called while the task list is locked, so it must be quick and must not change the
+     * list itself.
+     * @param event The change made
+     */
+    void onEvent(TaskEvent event);
+}
@@ -12,9 +12,15 @@ public class InvalidInputException extends Exception {
         NO_SEARCH_DATE,
         NO_BY_DATE,
         NO_AT_DATE,
+        NO_BEFORE_DATE,
+        CONFLICTING_OPTIONS,
         MALFORMED_DATE,
         NOT_INTEGER,
-        INDEX_OUT_OF_BOUND
+        INDEX_OUT_OF_BOUND,
+        TRANSACTION_OPEN,
+        NO_TRANSACTION,
+        INVALID_USER,
+        UNKNOWN_STATS_OPTION
     }
 
     public InvalidInputException(InputExceptionType inputType) {
@@ -39,12 +45,24 @@ public class InvalidInputException extends Exception {
             return "You must specify a deadline date following /by keyword.";
         case NO_AT_DATE:
             return "You must specify an event date following /at keyword.";
+        case NO_BEFORE_DATE:
+            return "You must specify a date following /before keyword.";
+        case CONFLICTING_OPTIONS:
+            return "Only one of task numbers, /done or /before can be given at a time.";
         case MALFORMED_DATE:
             return "Date (and time) specified cannot be parsed.";
         case NOT_INTEGER:
             return "Only integer is accepted as the argument.";
         case INDEX_OUT_OF_BOUND:
             return "We don't have an existing entry with this index.";
+        case TRANSACTION_OPEN:
+            return "A batch has already begun, commit or rollback it first.";
+        case NO_TRANSACTION:
+            return "There is no batch to end, use begin to start one.";
+        case INVALID_USER:
+            return "A user name can only have letters, digits, '-' and '_'.";
+        case UNKNOWN_STATS_OPTION:
+            return "Only 'on', 'off' or 'reset' can follow the stats command.";
         default:
             return "This type of invalid input is not recognized.";
         }
@@ -0,0 +1,94 @@
+package duke.index;
+
+import java.util.Iterator;
+import java.util.TreeMap;
+
+import duke.DateTime;
+import duke.store.TaskStore;
+import duke.task.Task;
+
+/**
+ * An index of the tasks not done yet which have a date (deadlines and events), in chronological order.
+ * Tasks are keyed by their dateTime (as epoch seconds) then by their ids, so tasks at the same time stay in the order
+ * of the task list. Taking the first k tasks before or after a time costs O(log n + k), however long the list is.
+ * A task leaves the index as soon as it is done.
+ */
+public class AgendaIndex extends TaskIndex {
+    protected TreeMap<Key, Task> tasks = new TreeMap<>();
+
+    /**
+     * Construct an index of the tasks in a store
+     * @param store Store of the task list
+     */
+    public AgendaIndex(TaskStore store) {
+        addAll(store);
+    }
+
+    /**
+     * Find the tasks due at or after a time, earliest first
+     * The result is read from the index as it is iterated, so it must be used before the list is changed again.
+     * @param from The time to start from
+     * @param limit Maximum number of tasks found
+     * @return Tasks found in chronological order
+     */
+    public Iterator<Task> findFrom(DateTime from, int limit) {
+        Key first = new Key(from.toEpochSecond(), Long.MIN_VALUE);
+        return new LimitedIterator<>(tasks.tailMap(first, true).values().iterator(), limit);
+    }
+
+    /**
+     * Find the tasks due before a time, earliest first
+     * The result is read from the index as it is iterated, so it must be used before the list is changed again.
+     * @param to The time to stop at, excluded
+     * @param limit Maximum number of tasks found
+     * @return Tasks found in chronological order
+     */
+    public Iterator<Task> findBefore(DateTime to, int limit) {
+        Key last = new Key(to.toEpochSecond(), Long.MIN_VALUE);
+        return new LimitedIterator<>(tasks.headMap(last, false).values().iterator(), limit);
+    }
+
+    /**
+     * Get the number of tasks indexed
+     * @return Number of tasks not done yet which have a date
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    protected void index(Task task, long id) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime != null && !task.isDone()) {
+            tasks.put(new Key(dateTime.toEpochSecond(), id), task);
+        }
+    }
+
+    @Override
+    protected void unindex(Task task, long id) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime != null) {
+            // Removed whether done or not, as the task may have been marked since it was indexed
+            tasks.remove(new Key(dateTime.toEpochSecond(), id));
+        }
+    }
+
+    /**
+     * Position of a task in the index: its time, then its id among the tasks at the same time
+     */
+    protected static class Key implements Comparable<Key> {
+        protected long epochSecond;
+        protected long id;
+
+        protected Key(long epochSecond, long id) {
+            this.epochSecond = epochSecond;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(epochSecond, other.epochSecond);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
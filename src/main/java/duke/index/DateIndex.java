@@ -0,0 +1,146 @@
+package duke.index;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import duke.DateTime;
+import duke.store.TaskStore;
+import duke.task.Task;
+
+/**
+ * An index from dates (as epoch days) to the tasks falling on them, kept in the order of the task list by their ids.
+ * Looking up a date or a range of dates only visits the tasks found, instead of every task in the list.
+ */
+public class DateIndex extends TaskIndex {
+    protected TreeMap<Long, TreeMap<Long, Task>> buckets = new TreeMap<>();
+
+    /**
+     * Construct an index of the tasks in a store
+     * @param store Store of the task list
+     */
+    public DateIndex(TaskStore store) {
+        addAll(store);
+    }
+
+    /**
+     * Keep the task changed in place of the one indexed, as its date stays the same.
+     * The store may hand out a new object for the changed task, so the old one cannot be relied on.
+     */
+    @Override
+    public void update(long id, Task task) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime != null) {
+            TreeMap<Long, Task> bucket = buckets.get(dateTime.toEpochDay());
+            if (bucket != null) {
+                bucket.replace(id, task);
+            }
+        }
+    }
+
+    /**
+     * Find all tasks falling on the same date as the given dateTime
+     * The result is read from the index as it is iterated, so it must be used before the list is changed again.
+     * @param dateTime The date to look up
+     * @return Tasks found in the order of the task list
+     */
+    public Iterator<Task> find(DateTime dateTime) {
+        TreeMap<Long, Task> bucket = buckets.get(dateTime.toEpochDay());
+        return bucket == null ? Collections.emptyIterator() : bucket.values().iterator();
+    }
+
+    /**
+     * Find all tasks falling on a date between the given dateTimes, both inclusive
+     * The result is read from the index as it is iterated, so it must be used before the list is changed again.
+     * @param from The first date of the range
+     * @param to The last date of the range
+     * @return Tasks found in the order of the task list
+     */
+    public Iterator<Task> find(DateTime from, DateTime to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        if (fromDay > toDay) {
+            return Collections.emptyIterator();
+        }
+        return new MergingIterator(buckets.subMap(fromDay, true, toDay, true).values());
+    }
+
+    @Override
+    protected void index(Task task, long id) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime != null) {
+            buckets.computeIfAbsent(dateTime.toEpochDay(), k -> new TreeMap<>()).put(id, task);
+        }
+    }
+
+    @Override
+    protected void unindex(Task task, long id) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime == null) {
+            return;
+        }
+        TreeMap<Long, Task> bucket = buckets.get(dateTime.toEpochDay());
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                buckets.remove(dateTime.toEpochDay());
+            }
+        }
+    }
+
+    /**
+     * Merge the buckets of several dates (each in the order of the task list) into the order of the task list,
+     * taking one task at a time from the bucket holding the smallest id
+     */
+    protected static class MergingIterator implements Iterator<Task> {
+        // Each element is the iterator of a bucket, ordered by the id of its next task
+        protected PriorityQueue<PeekingIterator> queue =
+                new PriorityQueue<>(Comparator.comparingLong(iterator -> iterator.head.getKey()));
+
+        protected MergingIterator(Iterable<TreeMap<Long, Task>> buckets) {
+            for (TreeMap<Long, Task> bucket : buckets) {
+                PeekingIterator iterator = new PeekingIterator(bucket.entrySet().iterator());
+                if (iterator.head != null) {
+                    queue.add(iterator);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Task next() {
+            PeekingIterator iterator = queue.poll();
+            if (iterator == null) {
+                throw new NoSuchElementException();
+            }
+            Task task = iterator.head.getValue();
+            if (iterator.advance()) {
+                queue.add(iterator);
+            }
+            return task;
+        }
+    }
+
+    protected static class PeekingIterator {
+        protected Iterator<Map.Entry<Long, Task>> rest;
+        protected Map.Entry<Long, Task> head;
+
+        protected PeekingIterator(Iterator<Map.Entry<Long, Task>> rest) {
+            this.rest = rest;
+            advance();
+        }
+
+        protected boolean advance() {
+            head = rest.hasNext() ? rest.next() : null;
+            return head != null;
+        }
+    }
+}
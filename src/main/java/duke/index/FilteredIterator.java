@@ -0,0 +1,51 @@
+package duke.index;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * An iterator over the elements of another iterator which pass a test.
+ * Elements are only tested when the caller asks for the next one, so a result which is never read is never checked.
+ * @param <T> Type of the elements
+ */
+public class FilteredIterator<T> implements Iterator<T> {
+    protected Iterator<T> source;
+    protected Predicate<? super T> test;
+    // The next element passing the test, valid when `hasNextElement` is true
+    protected T nextElement;
+    protected boolean hasNextElement = false;
+
+    /**
+     * Construct an iterator filtering another one
+     * @param source The iterator to filter
+     * @param test The test an element must pass to be returned
+     */
+    public FilteredIterator(Iterator<T> source, Predicate<? super T> test) {
+        this.source = source;
+        this.test = test;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!hasNextElement && source.hasNext()) {
+            T element = source.next();
+            if (test.test(element)) {
+                nextElement = element;
+                hasNextElement = true;
+            }
+        }
+        return hasNextElement;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNextElement = false;
+        T element = nextElement;
+        nextElement = null;
+        return element;
+    }
+}
@@ -0,0 +1,182 @@
+package duke.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import duke.store.TaskStore;
+import duke.task.Task;
+
+/**
+ * An inverted index from the lowercase trigrams of each task's string to the ids of the tasks containing them.
+ * Finding a subtext only checks the tasks sharing its rarest trigram, instead of every task in the list.
+ *
+ * Posting lists are never shrunk when a task leaves the index, stale entries are skipped instead and dropped by a
+ * periodic rebuild. An id whose task has been replaced may point to the new task, which is checked like any other.
+ */
+public class FindIndex extends TaskIndex {
+    public static final int GRAM_LENGTH = 3;
+
+    protected TaskStore store;
+    protected HashMap<Long, Posting> postings = new HashMap<>();
+    // Number of times a task has left the index (or changed), leaving stale entries in the posting lists
+    protected int staleCount = 0;
+
+    /**
+     * Construct an index of the tasks in a store
+     * @param store Store of the task list, which is also used to look up the tasks found
+     */
+    public FindIndex(TaskStore store) {
+        this.store = store;
+        addAll(store);
+    }
+
+    /**
+     * Index a task again after its string has changed (e.g. marked as done).
+     * Entries of its old string are left in place, as they are checked against the current string anyway.
+     * @param id Id of the task
+     * @param task The task changed
+     */
+    @Override
+    public void update(long id, Task task) {
+        index(task, id);
+        markStale();
+    }
+
+    /**
+     * Find all tasks whose string contains the needle, case-sensitively.
+     * The candidates are put into the order of the task list up front, but only checked against the needle as the
+     * result is iterated. The result must be used before the list is changed again.
+     * @param needle The subtext to find
+     * @return Tasks found in the order of the task list, or null if the needle is too short to use the index
+     */
+    public Iterator<Task> find(String needle) {
+        if (needle.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        // Only the tasks having the rarest trigram of the needle can contain it
+        String lowerNeedle = toLowerCase(needle);
+        Posting candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= lowerNeedle.length(); i += 1) {
+            Posting posting = postings.get(gramAt(lowerNeedle, i));
+            if (posting == null) {
+                return Collections.emptyIterator();
+            }
+            if (candidates == null || posting.size < candidates.size) {
+                candidates = posting;
+            }
+        }
+
+        long[] ids = Arrays.copyOf(candidates.ids, candidates.size);
+        Arrays.sort(ids);
+        return new FilteredIterator<>(new TaskIterator(ids), task -> task.toString().contains(needle));
+    }
+
+    @Override
+    protected void index(Task task, long id) {
+        String text = toLowerCase(task.toString());
+        HashSet<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i += 1) {
+            long gram = gramAt(text, i);
+            if (grams.add(gram)) {
+                postings.computeIfAbsent(gram, k -> new Posting()).add(id);
+            }
+        }
+    }
+
+    @Override
+    protected void unindex(Task task, long id) {
+        markStale();
+    }
+
+    protected void markStale() {
+        staleCount += 1;
+        if (staleCount > store.size()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild all posting lists from the tasks still in the store, dropping stale entries
+     */
+    protected void rebuild() {
+        postings = new HashMap<>();
+        addAll(store);
+        staleCount = 0;
+    }
+
+    /**
+     * Pack the trigram at the given position into a single number
+     */
+    protected static long gramAt(String text, int position) {
+        return ((long) text.charAt(position) << 32)
+                | ((long) text.charAt(position + 1) << 16)
+                | text.charAt(position + 2);
+    }
+
+    /**
+     * Lowercase a string character by character, so that positions in it stay the same as in the original
+     */
+    protected static String toLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i += 1) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Ids of the tasks having a trigram, in the order they have been indexed
+     */
+    protected static class Posting {
+        protected long[] ids = new long[4];
+        protected int size = 0;
+
+        protected void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            size += 1;
+        }
+    }
+
+    /**
+     * Look up the tasks of sorted ids in the store, skipping duplicated ids and those no longer in the store
+     */
+    protected class TaskIterator implements Iterator<Task> {
+        protected long[] ids;
+        protected int cursor = 0;
+        protected Task nextTask;
+
+        protected TaskIterator(long[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextTask == null && cursor < ids.length) {
+                long id = ids[cursor];
+                cursor += 1;
+                if (cursor == 1 || ids[cursor - 2] != id) {
+                    nextTask = store.getById(id);
+                }
+            }
+            return nextTask != null;
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Task task = nextTask;
+            nextTask = null;
+            return task;
+        }
+    }
+}
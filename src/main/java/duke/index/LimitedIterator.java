@@ -0,0 +1,38 @@
+package duke.index;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator over at most a given number of the first elements of another iterator.
+ * @param <T> Type of the elements
+ */
+public class LimitedIterator<T> implements Iterator<T> {
+    protected Iterator<T> source;
+    // Number of elements which can still be returned
+    protected int remaining;
+
+    /**
+     * Construct an iterator limiting another one
+     * @param source The iterator to limit
+     * @param limit Maximum number of elements returned
+     */
+    public LimitedIterator(Iterator<T> source, int limit) {
+        this.source = source;
+        this.remaining = limit;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0 && source.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining -= 1;
+        return source.next();
+    }
+}
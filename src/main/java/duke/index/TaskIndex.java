@@ -0,0 +1,92 @@
+package duke.index;
+
+import duke.event.TaskEvent;
+import duke.event.TaskListener;
+import duke.store.TaskStore;
+import duke.task.Task;
+
+/**
+ * Base class of the indexes kept alongside a task list, which subscribe to every change made to the list.
+ * Tasks are identified by the ids given by the task store, which increase in the order of the list, so results can
+ * be put back into that order by their ids: an appended task takes a new largest id, while a replacing task takes
+ * over the id of the one it replaces.
+ */
+public abstract class TaskIndex implements TaskListener {
+    /**
+     * Index all tasks of a store
+     * @param store Store of the task list
+     */
+    protected void addAll(TaskStore store) {
+        store.forEach(this::add);
+    }
+
+    /**
+     * Keep up with a change of the list
+     * @param event The change made
+     */
+    @Override
+    public void onEvent(TaskEvent event) {
+        if (event instanceof TaskEvent.Added) {
+            add(event.getId(), event.getTask());
+        } else if (event instanceof TaskEvent.Replaced) {
+            replace(event.getId(), ((TaskEvent.Replaced) event).getOldTask(), event.getTask());
+        } else if (event instanceof TaskEvent.MarkedDone) {
+            update(event.getId(), event.getTask());
+        } else if (event instanceof TaskEvent.Removed) {
+            remove(event.getId(), event.getTask());
+        }
+    }
+
+    /**
+     * Index a task appended to the end of the list
+     * @param id Id of the task
+     * @param task The task appended
+     */
+    public void add(long id, Task task) {
+        index(task, id);
+    }
+
+    /**
+     * Index a task replacing another one in the list
+     * @param id Id of the task replaced, which the new task takes over
+     * @param oldTask The task replaced
+     * @param newTask The task taking its place
+     */
+    public void replace(long id, Task oldTask, Task newTask) {
+        unindex(oldTask, id);
+        index(newTask, id);
+    }
+
+    /**
+     * Index a task again after it has changed (e.g. marked as done)
+     * @param id Id of the task
+     * @param task The task changed
+     */
+    public void update(long id, Task task) {
+        unindex(task, id);
+        index(task, id);
+    }
+
+    /**
+     * Remove a task deleted from the list
+     * @param id Id the task had
+     * @param task The task deleted
+     */
+    public void remove(long id, Task task) {
+        unindex(task, id);
+    }
+
+    /**
+     * Add a task to the structures of this index
+     * @param task The task to be added
+     * @param id Id of the task
+     */
+    protected abstract void index(Task task, long id);
+
+    /**
+     * Remove a task from the structures of this index
+     * @param task The task to be removed
+     * @param id Id the task had
+     */
+    protected abstract void unindex(Task task, long id);
+}
@@ -35,10 +35,95 @@ public class English {
     public static final String TASK_LIST_AT_BY =
             " at/by %s";
 
+    // %s: First date of the range
+    // %s: Last date of the range
+    public static final String TASK_LIST_FROM_TO =
+            " from %s to %s";
+
+    // %s: Current DateTime object
+    public static final String TASK_LIST_UPCOMING =
+            " due from %s on";
+
+    // %s: Current DateTime object
+    public static final String TASK_LIST_OVERDUE =
+            " overdue as of %s";
+
+    // %d: Number of the first task shown
+    // %d: Number of the last task shown
+    // %d: Task counts
+    public static final String TASK_LIST_WINDOW =
+            " (%d to %d of %d)";
+
+    // %d: Number of the first task not shown yet
+    public static final String TASK_LIST_MORE =
+            "Enter 'list /from %d' to see more.";
+
     // %s: Latest added task
     // %d: Task counts
     public static final String NEW_TASK =
             "Great. We added a new task:\n"
             + "%s\n"
             + "You have in total %d tasks";
+
+    // No args
+    public static final String TASK_DONE =
+            "Nice! I've marked this task as done:";
+
+    // %d: Number of tasks marked
+    public static final String TASKS_DONE =
+            "Nice! I've marked these %d tasks as done:";
+
+    // No args
+    public static final String NO_TASK_DONE =
+            "There is no task to be marked as done.";
+
+    // No args
+    public static final String TASK_REMOVED =
+            "Sure! I've removed this task:";
+
+    // %d: Number of tasks removed
+    public static final String TASKS_REMOVED =
+            "Sure! I've removed these %d tasks:";
+
+    // No args
+    public static final String NO_TASK_REMOVED =
+            "There is no task to be removed.";
+
+    // No args
+    public static final String TRANSACTION_BEGUN =
+            "Batch begun. Changes will be saved when you enter 'commit',\n"
+            + "or undone when you enter 'rollback'.";
+
+    // %d: Number of changes saved
+    public static final String TRANSACTION_COMMITTED =
+            "Batch committed. %d changes have been saved.";
+
+    // %d: Number of changes undone
+    public static final String TRANSACTION_ROLLED_BACK =
+            "Batch rolled back. %d changes have been undone.";
+
+    // %s: Current DateTime object
+    public static final String REMINDER =
+            "Reminder! As of %s, these tasks are coming up:";
+
+    // No args
+    public static final String USER_PROMPT =
+            "Who are you? Please enter your user name.";
+
+    // No args
+    public static final String METRICS_ENABLED =
+            "Commands will be measured from now on. Enter 'stats' to see how they perform.";
+
+    // No args
+    public static final String METRICS_DISABLED =
+            "Commands are not measured. Enter 'stats on' to start measuring them.";
+
+    // No args
+    public static final String METRICS_RESET =
+            "All measurements so far have been forgotten.";
+
+    // %s: Table of the latency and allocation of every command
+    public static final String METRICS_REPORT =
+            "Here is how each type of command has performed:\n"
+            + "%s";
 }
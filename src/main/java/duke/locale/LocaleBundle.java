@@ -0,0 +1,148 @@
+package duke.locale;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All messages of a locale, compiled into templates once when the locale is loaded.
+ * A key missing in the locale is taken from the English locale at load time, so no lookup has to fall back later.
+ *
+ * A locale is found by its name, in this order:
+ * 1. A class 'duke.locale.<Name>' with a public static String field per key (e.g. English)
+ * 2. A resource 'locale/<Name>.properties' on the class path
+ * 3. A file '<Name>' or '<Name>.properties' on the disk
+ * Properties files are read in UTF-8, e.g. a line `FAREWELL=Bye!` overrides the farewell message.
+ */
+public class LocaleBundle {
+    public static final String LOCALE_CLASS_PREFIX = "duke.locale.";
+    public static final String LOCALE_RESOURCE_PREFIX = "locale/";
+    public static final String LOCALE_FILE_SUFFIX = ".properties";
+    public static final Class<?> DEFAULT_LOCALE_CLASS = English.class;
+
+    private static final Map<String, LocaleBundle> LOADED_BUNDLES = new ConcurrentHashMap<>();
+
+    protected String name;
+    protected Map<String, MessageTemplate> templates;
+
+    protected LocaleBundle(String name, Map<String, MessageTemplate> templates) {
+        this.name = name;
+        this.templates = Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Get a locale, loading it on first use
+     * @param name Name of the locale
+     * @return The locale, or the English locale if it cannot be found
+     */
+    public static LocaleBundle get(String name) {
+        return LOADED_BUNDLES.computeIfAbsent(name, LocaleBundle::load);
+    }
+
+    /**
+     * Load a locale on top of the English one
+     * @param name Name of the locale
+     * @return The locale loaded, which holds only English messages if the locale cannot be found
+     */
+    protected static LocaleBundle load(String name) {
+        Map<String, String> patterns = new HashMap<>();
+        readClass(DEFAULT_LOCALE_CLASS, patterns);
+        if (!readLocale(name, patterns)) {
+            // Cannot find this locale, everything falls back to English
+            name = DEFAULT_LOCALE_CLASS.getSimpleName();
+        }
+
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            templates.put(entry.getKey(), new MessageTemplate(entry.getValue()));
+        }
+        return new LocaleBundle(name, templates);
+    }
+
+    /**
+     * Read all messages of a locale, overwriting the messages read before
+     * @return Whether the locale is found
+     */
+    protected static boolean readLocale(String name, Map<String, String> patterns) {
+        try {
+            readClass(Class.forName(LOCALE_CLASS_PREFIX + name), patterns);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Not a built-in locale, try resources below
+        }
+
+        try {
+            try (InputStream in = LocaleBundle.class.getClassLoader()
+                    .getResourceAsStream(LOCALE_RESOURCE_PREFIX + name + LOCALE_FILE_SUFFIX)) {
+                if (in != null) {
+                    readProperties(in, patterns);
+                    return true;
+                }
+            }
+            for (Path path : new Path[] { Paths.get(name), Paths.get(name + LOCALE_FILE_SUFFIX) }) {
+                if (Files.isRegularFile(path)) {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        readProperties(in, patterns);
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // An unreadable locale is treated as a missing one
+        }
+        return false;
+    }
+
+    protected static void readClass(Class<?> localeClass, Map<String, String> patterns) {
+        for (Field field : localeClass.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) || field.getType() != String.class) {
+                continue;
+            }
+            try {
+                patterns.put(field.getName(), (String) field.get(null));
+            } catch (IllegalAccessException e) {
+                // Not a message
+            }
+        }
+    }
+
+    protected static void readProperties(InputStream in, Map<String, String> patterns) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            patterns.put(key, properties.getProperty(key));
+        }
+    }
+
+    /**
+     * Get the name of the locale
+     * @return Name of the locale, "English" if the locale requested has not been found
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the template of a message
+     * @param key Key of the message
+     * @return The template, or null if neither this locale nor English has this message
+     */
+    public MessageTemplate getTemplate(String key) {
+        return templates.get(key);
+    }
+}
@@ -0,0 +1,117 @@
+package duke.locale;
+
+import java.util.ArrayList;
+
+/**
+ * A message of a locale, split once into literal text and placeholders, so that filling it in does not parse
+ * the format string again.
+ *
+ * Only '%s', '%d', '%n' and '%%' are precompiled, which is all the messages of the program use. A message using
+ * any other format specifier (e.g. with flags or an explicit argument index) is filled in with String.format().
+ */
+public class MessageTemplate {
+    // Placeholders in `parts`, any other element is a literal String
+    protected static final Object STRING_ARGUMENT = new Object();
+    protected static final Object INTEGER_ARGUMENT = new Object();
+
+    protected String pattern;
+    // Null if the pattern has to be formatted by String.format()
+    protected Object[] parts;
+    protected int argumentCount;
+
+    /**
+     * Construct a template by compiling a pattern
+     * @param pattern Pattern of the message, as accepted by String.format()
+     */
+    public MessageTemplate(String pattern) {
+        this.pattern = pattern;
+        this.parts = compile(pattern);
+    }
+
+    /**
+     * Get the pattern this template is compiled from
+     * @return The pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Fill in the template, giving the same result as String.format(pattern, args)
+     * @param args Objects to be filled into the placeholders in order
+     * @return The message
+     * @throws java.util.IllegalFormatException This is thrown when the arguments do not match the placeholders
+     */
+    public String format(Object... args) {
+        if (parts == null || args.length < argumentCount) {
+            return String.format(pattern, args);
+        }
+        StringBuilder result = new StringBuilder(pattern.length() + 16 * argumentCount);
+        int argument = 0;
+        for (Object part : parts) {
+            if (part == STRING_ARGUMENT) {
+                result.append(args[argument]);
+                argument += 1;
+            } else if (part == INTEGER_ARGUMENT) {
+                Object value = args[argument];
+                if (!(value instanceof Integer || value instanceof Long)) {
+                    // Let String.format() decide how to render (or reject) it
+                    return String.format(pattern, args);
+                }
+                result.append(value);
+                argument += 1;
+            } else {
+                result.append((String) part);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Split a pattern into literal strings and placeholders
+     * @return The parts, or null if the pattern uses a specifier which is not precompiled
+     */
+    protected Object[] compile(String pattern) {
+        ArrayList<Object> result = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i += 1) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i + 1 >= pattern.length()) {
+                return null;
+            }
+            i += 1;
+            switch (pattern.charAt(i)) {
+            case '%':
+                literal.append('%');
+                continue;
+            case 'n':
+                literal.append(System.lineSeparator());
+                continue;
+            case 's':
+                addLiteral(result, literal);
+                result.add(STRING_ARGUMENT);
+                break;
+            case 'd':
+                addLiteral(result, literal);
+                result.add(INTEGER_ARGUMENT);
+                break;
+            default:
+                return null;
+            }
+            argumentCount += 1;
+        }
+        addLiteral(result, literal);
+        return result.toArray();
+    }
+
+    private static void addLiteral(ArrayList<Object> parts, StringBuilder literal) {
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+}
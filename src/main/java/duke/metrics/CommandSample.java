@@ -0,0 +1,78 @@
+package duke.metrics;
+
+/**
+ * Measurements of a single command as it goes through its phases, created by Metrics.startSample().
+ *
+ * A command is in exactly one phase at a time, starting with PARSE, and enter() moves it to the next one. Time spent
+ * saving and rendering while the command executes is reported by Metrics.endPersist() and Metrics.endRender(), and
+ * moved out of the execute phase into those phases.
+ *
+ * Allocated bytes are read from the thread running each phase, so a phase which starts and ends in different
+ * threads (e.g. waiting for the writer of a server) adds its time but not its allocation.
+ */
+public class CommandSample {
+    protected Metrics metrics;
+    protected long[] nanos = new long[Phase.values().length];
+    protected long allocatedBytes = 0;
+
+    protected Phase phase = Phase.PARSE;
+    protected long phaseStart;
+    protected Thread phaseThread;
+    protected long phaseAllocated;
+
+    /**
+     * Phases of a command
+     */
+    public enum Phase {
+        PARSE,
+        EXECUTE,
+        PERSIST,
+        RENDER
+    }
+
+    protected CommandSample(Metrics metrics) {
+        this.metrics = metrics;
+        begin();
+    }
+
+    /**
+     * End the current phase and start another one in the current thread
+     * @param next The phase to start, which may be the current one (e.g. when it moves to another thread)
+     */
+    public void enter(Phase next) {
+        long elapsed = System.nanoTime() - phaseStart;
+        if (phase == Phase.EXECUTE) {
+            long[] inner = metrics.takeInnerPhases();
+            long persist = Math.min(inner[0], elapsed);
+            long render = Math.min(inner[1], elapsed - persist);
+            nanos[Phase.PERSIST.ordinal()] += persist;
+            nanos[Phase.RENDER.ordinal()] += render;
+            elapsed -= persist + render;
+        }
+        nanos[phase.ordinal()] += elapsed;
+        if (phaseThread == Thread.currentThread() && phaseAllocated >= 0) {
+            allocatedBytes += Metrics.getAllocatedBytes() - phaseAllocated;
+        }
+        phase = next;
+        begin();
+    }
+
+    /**
+     * End the current phase, and record all measurements of the command
+     * @param command Name of the command, e.g. "todo"
+     */
+    public void finish(String command) {
+        enter(phase);
+        metrics.record(command, this);
+    }
+
+    protected void begin() {
+        if (phase == Phase.EXECUTE) {
+            // Drop whatever another command has left in this thread
+            metrics.takeInnerPhases();
+        }
+        phaseThread = Thread.currentThread();
+        phaseAllocated = Metrics.getAllocatedBytes();
+        phaseStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,86 @@
+package duke.metrics;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Measurements of a type of command at a point of time, in the form exposed through JMX
+ */
+public class CommandStats {
+    protected String command;
+    protected long count;
+    protected long parseP50Nanos;
+    protected long parseP99Nanos;
+    protected long executeP50Nanos;
+    protected long executeP99Nanos;
+    protected long persistP50Nanos;
+    protected long persistP99Nanos;
+    protected long renderP50Nanos;
+    protected long renderP99Nanos;
+    protected long meanAllocatedBytes;
+
+    /**
+     * Constructor of the measurements of a type of command
+     */
+    @ConstructorParameters({"command", "count", "parseP50Nanos", "parseP99Nanos", "executeP50Nanos",
+            "executeP99Nanos", "persistP50Nanos", "persistP99Nanos", "renderP50Nanos", "renderP99Nanos",
+            "meanAllocatedBytes"})
+    public CommandStats(String command, long count, long parseP50Nanos, long parseP99Nanos, long executeP50Nanos,
+            long executeP99Nanos, long persistP50Nanos, long persistP99Nanos, long renderP50Nanos,
+            long renderP99Nanos, long meanAllocatedBytes) {
+        this.command = command;
+        this.count = count;
+        this.parseP50Nanos = parseP50Nanos;
+        this.parseP99Nanos = parseP99Nanos;
+        this.executeP50Nanos = executeP50Nanos;
+        this.executeP99Nanos = executeP99Nanos;
+        this.persistP50Nanos = persistP50Nanos;
+        this.persistP99Nanos = persistP99Nanos;
+        this.renderP50Nanos = renderP50Nanos;
+        this.renderP99Nanos = renderP99Nanos;
+        this.meanAllocatedBytes = meanAllocatedBytes;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getParseP50Nanos() {
+        return parseP50Nanos;
+    }
+
+    public long getParseP99Nanos() {
+        return parseP99Nanos;
+    }
+
+    public long getExecuteP50Nanos() {
+        return executeP50Nanos;
+    }
+
+    public long getExecuteP99Nanos() {
+        return executeP99Nanos;
+    }
+
+    public long getPersistP50Nanos() {
+        return persistP50Nanos;
+    }
+
+    public long getPersistP99Nanos() {
+        return persistP99Nanos;
+    }
+
+    public long getRenderP50Nanos() {
+        return renderP50Nanos;
+    }
+
+    public long getRenderP99Nanos() {
+        return renderP99Nanos;
+    }
+
+    public long getMeanAllocatedBytes() {
+        return meanAllocatedBytes;
+    }
+}
@@ -0,0 +1,125 @@
+package duke.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values with a fixed relative precision, in the manner of HdrHistogram.
+ *
+ * Values below 2 * SUB_BUCKET_COUNT have a bucket each. Above that, every power of two is split into SUB_BUCKET_COUNT
+ * buckets of equal width, so a value is known within 1 / SUB_BUCKET_COUNT of itself (about 3%) however large it is.
+ * Recording is a few bit operations and an atomic increment, and never allocates.
+ */
+public class Histogram {
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values are capped at 2^MAX_VALUE_BITS - 1, which is about 18 minutes in nanoseconds
+    public static final int MAX_VALUE_BITS = 40;
+    public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    protected static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    protected AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    protected AtomicLong count = new AtomicLong();
+    protected AtomicLong sum = new AtomicLong();
+    protected AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value
+     * @param value The value, negative values are recorded as 0 and those above MAX_VALUE as MAX_VALUE
+     */
+    public void record(long value) {
+        value = Math.max(0, Math.min(value, MAX_VALUE));
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the number of values recorded
+     * @return Number of values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the sum of all values recorded
+     * @return Sum of the values
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * Get the mean of all values recorded
+     * @return Mean of the values, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Get the largest value recorded
+     * @return The largest value, 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value below or at which the given fraction of all values fall
+     * @param fraction Fraction of the values, between 0 and 1 (e.g. 0.99 for the 99th percentile)
+     * @return The middle of the bucket holding the percentile (never above the largest value), 0 if nothing has
+     *     been recorded
+     */
+    public long getPercentile(double fraction) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket += 1) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(lowestOf(bucket) + (widthOf(bucket) - 1) / 2, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget all values recorded
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket += 1) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    protected static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    protected static long lowestOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        return (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+    }
+
+    protected static long widthOf(int bucket) {
+        return bucket < 2 * SUB_BUCKET_COUNT ? 1 : 1L << ((bucket >>> SUB_BUCKET_BITS) - 1);
+    }
+}
@@ -0,0 +1,305 @@
+package duke.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import duke.command.Command;
+import duke.command.CommandRegistry;
+import duke.metrics.CommandSample.Phase;
+
+/**
+ * Latency and allocation of every type of command, split into its phases, and the bytes written by every save.
+ *
+ * Metrics are disabled by default, in which case each probe costs a single volatile read: startSample() returns
+ * null, phaseStart() returns 0, and the other probes return right away. Once enabled, they are also exposed through
+ * JMX under OBJECT_NAME.
+ *
+ * Typical use by the loop running commands:
+ * <pre>
+ * CommandSample sample = Metrics.startSample();
+ * Command cmd = parser.parse(line);
+ * Metrics.enter(sample, Phase.EXECUTE);
+ * cmd.execute();
+ * Metrics.enter(sample, Phase.RENDER);
+ * ui.flush();
+ * Metrics.finish(sample, cmd);
+ * </pre>
+ */
+public class Metrics implements MetricsMXBean {
+    public static final String OBJECT_NAME = "duke:type=Metrics";
+    // Name under which commands failing to be parsed are recorded
+    public static final String INVALID_COMMAND = "(invalid)";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private static volatile boolean isEnabled = false;
+    private static boolean isRegistered = false;
+
+    // Time spent persisting and rendering (in this order) by the current thread, since it was last taken
+    protected ThreadLocal<long[]> innerPhases = ThreadLocal.withInitial(() -> new long[2]);
+    protected Map<String, CommandMetrics> commands = new ConcurrentSkipListMap<>();
+    protected Histogram saveBytes = new Histogram();
+
+    protected Metrics() {
+    }
+
+    /**
+     * Get the metrics of this process
+     * @return The only metrics instance
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start measuring a command, in its parse phase
+     * @return The sample of the command, or null if metrics are disabled
+     */
+    public static CommandSample startSample() {
+        return isEnabled ? new CommandSample(INSTANCE) : null;
+    }
+
+    /**
+     * Move a command being measured to its next phase
+     * @param sample Sample of the command, null if metrics are disabled
+     * @param phase The phase to enter
+     */
+    public static void enter(CommandSample sample, Phase phase) {
+        if (sample != null) {
+            sample.enter(phase);
+        }
+    }
+
+    /**
+     * Record the measurements of a command which has finished
+     * @param sample Sample of the command, null if metrics are disabled
+     * @param cmd The command, null if it has failed to be parsed
+     */
+    public static void finish(CommandSample sample, Command cmd) {
+        if (sample != null) {
+            sample.finish(nameOf(cmd));
+        }
+    }
+
+    /**
+     * Mark the start of a persist or render phase inside the execution of a command
+     * @return The start time to be passed to endPersist() or endRender(), 0 if metrics are disabled
+     */
+    public static long phaseStart() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Mark the end of a persist phase started by phaseStart()
+     * @param start The value returned by phaseStart()
+     */
+    public static void endPersist(long start) {
+        if (start != 0) {
+            INSTANCE.innerPhases.get()[0] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Mark the end of a render phase started by phaseStart()
+     * @param start The value returned by phaseStart()
+     */
+    public static void endRender(long start) {
+        if (start != 0) {
+            INSTANCE.innerPhases.get()[1] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Record the size of a save file or log record written
+     * @param bytes Number of bytes written
+     */
+    public static void recordSave(long bytes) {
+        if (isEnabled) {
+            INSTANCE.saveBytes.record(bytes);
+        }
+    }
+
+    /**
+     * Get the name a command is recorded under, e.g. "todo" for TodoCommand
+     * @param cmd The command, null if it has failed to be parsed
+     * @return Name of the command
+     */
+    public static String nameOf(Command cmd) {
+        if (cmd == null) {
+            return INVALID_COMMAND;
+        }
+        String name = cmd.getClass().getSimpleName();
+        if (name.endsWith(CommandRegistry.COMMAND_CLASS_SUFFIX)) {
+            name = name.substring(0, name.length() - CommandRegistry.COMMAND_CLASS_SUFFIX.length());
+        }
+        return name.toLowerCase();
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread so far
+     * @return Number of bytes, or -1 if the JVM cannot tell
+     */
+    protected static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = AllocationCounter.THREADS;
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Start or stop measuring commands, registering the metrics with JMX when first enabled
+     * @param isEnabled Whether metrics are to be enabled
+     */
+    @Override
+    public void setEnabled(boolean isEnabled) {
+        if (isEnabled) {
+            register();
+        }
+        Metrics.isEnabled = isEnabled;
+    }
+
+    @Override
+    public List<CommandStats> getCommandStats() {
+        List<CommandStats> stats = new ArrayList<>();
+        commands.forEach((name, command) -> stats.add(command.toStats(name)));
+        return stats;
+    }
+
+    @Override
+    public long getSaveCount() {
+        return saveBytes.getCount();
+    }
+
+    @Override
+    public long getSavedBytes() {
+        return saveBytes.getSum();
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-12s %7s %17s %17s %17s %17s %10s%n", "command", "count", "parse us",
+                "execute us", "persist us", "render us", "alloc KB"));
+        report.append(String.format("%-12s %7s %17s %17s %17s %17s %10s%n", "", "", "p50/p99", "p50/p99",
+                "p50/p99", "p50/p99", "mean"));
+        commands.forEach((name, command) -> {
+            report.append(String.format("%-12s %7d", name, command.total.getCount()));
+            for (Histogram phase : command.phases) {
+                report.append(String.format(" %17s", micros(phase.getPercentile(0.5)) + "/"
+                        + micros(phase.getPercentile(0.99))));
+            }
+            report.append(String.format(" %10.1f%n", command.allocatedBytes.getMean() / 1024));
+        });
+        report.append(String.format("saves: %d, %.0f bytes written on average, %d bytes at most",
+                saveBytes.getCount(), saveBytes.getMean(), saveBytes.getMax()));
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        commands.clear();
+        saveBytes.reset();
+    }
+
+    /**
+     * Record the measurements of a finished command
+     * @param command Name of the command
+     * @param sample Measurements of the command
+     */
+    protected void record(String command, CommandSample sample) {
+        CommandMetrics metrics = commands.computeIfAbsent(command, k -> new CommandMetrics());
+        long total = 0;
+        for (Phase phase : Phase.values()) {
+            metrics.phases[phase.ordinal()].record(sample.nanos[phase.ordinal()]);
+            total += sample.nanos[phase.ordinal()];
+        }
+        metrics.total.record(total);
+        if (AllocationCounter.THREADS != null) {
+            metrics.allocatedBytes.record(sample.allocatedBytes);
+        }
+    }
+
+    /**
+     * Take the time spent persisting and rendering by the current thread, resetting it to 0
+     * @return Persist and render time in nanoseconds, in this order
+     */
+    protected long[] takeInnerPhases() {
+        long[] inner = innerPhases.get();
+        long[] taken = inner.clone();
+        inner[0] = 0;
+        inner[1] = 0;
+        return taken;
+    }
+
+    protected static synchronized void register() {
+        if (isRegistered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // Metrics still work without JMX, e.g. when another instance has taken the name
+        }
+        isRegistered = true;
+    }
+
+    protected static String micros(long nanos) {
+        return nanos < 10_000 ? String.format("%.1f", nanos / 1000.0) : Long.toString(nanos / 1000);
+    }
+
+    /**
+     * Histograms of a type of command
+     */
+    protected static class CommandMetrics {
+        protected Histogram[] phases = new Histogram[Phase.values().length];
+        protected Histogram total = new Histogram();
+        protected Histogram allocatedBytes = new Histogram();
+
+        protected CommandMetrics() {
+            for (int i = 0; i < phases.length; i += 1) {
+                phases[i] = new Histogram();
+            }
+        }
+
+        protected CommandStats toStats(String name) {
+            long[] p50 = new long[phases.length];
+            long[] p99 = new long[phases.length];
+            for (int i = 0; i < phases.length; i += 1) {
+                p50[i] = phases[i].getPercentile(0.5);
+                p99[i] = phases[i].getPercentile(0.99);
+            }
+            return new CommandStats(name, total.getCount(), p50[0], p99[0], p50[1], p99[1], p50[2], p99[2], p50[3],
+                    p99[3], (long) allocatedBytes.getMean());
+        }
+    }
+
+    /**
+     * Holder of the bean counting allocated bytes, so that it is only looked up once metrics are in use
+     */
+    protected static class AllocationCounter {
+        protected static final com.sun.management.ThreadMXBean THREADS = lookup();
+
+        protected static com.sun.management.ThreadMXBean lookup() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threads;
+            if (!allocationBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            return allocationBean;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package duke.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of the command metrics, registered under Metrics.OBJECT_NAME once metrics are enabled
+ * @see Metrics
+ */
+public interface MetricsMXBean {
+    /**
+     * Check whether commands are being measured
+     * @return Whether metrics are enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Start or stop measuring commands, keeping the measurements made so far
+     * @param isEnabled Whether metrics are to be enabled
+     */
+    void setEnabled(boolean isEnabled);
+
+    /**
+     * Get the measurements of every type of command run so far
+     * @return Measurements of each type of command, ordered by name
+     */
+    List<CommandStats> getCommandStats();
+
+    /**
+     * Get the number of times the list has been written to the disk, by saves and log records alike
+     * @return Number of writes
+     */
+    long getSaveCount();
+
+    /**
+     * Get the number of bytes written to the disk by all saves and log records
+     * @return Number of bytes written
+     */
+    long getSavedBytes();
+
+    /**
+     * Get the measurements as a table, in the same format as the stats command
+     * @return The report
+     */
+    String getReport();
+
+    /**
+     * Forget all measurements made so far
+     */
+    void reset();
+}
@@ -0,0 +1,243 @@
+package duke.reminder;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import duke.DateTime;
+import duke.TaskList;
+import duke.Ui;
+import duke.event.TaskEvent;
+import duke.event.TaskListener;
+import duke.reminder.TimingWheel.Timeout;
+import duke.task.Task;
+
+/**
+ * A scheduler printing reminders of the deadlines and events not done yet, some time before they are due.
+ *
+ * Each task with a date is reminded of once for every lead time (e.g. 60 minutes before and when it is due) which
+ * has not passed yet when the task is added. Only its next reminder is held in a timing wheel of seconds, so that
+ * scheduling a task and taking it out again (when it is done, deleted or replaced) cost O(1) however many are pending.
+ * The scheduler subscribes to the changes of the task list, in the thread making them.
+ *
+ * Time is read from a clock, which can be replaced (e.g. by a fixed one) to drive the scheduler: start() runs a thread
+ * calling poll() every second, while poll() can also be called directly after moving the clock.
+ * @see TimingWheel
+ */
+public class ReminderScheduler implements TaskListener, AutoCloseable {
+    public static final long[] DEFAULT_LEAD_MINUTES = {60, 0};
+    public static final long POLL_MILLIS = 1000;
+
+    protected final Object lock = new Object();
+    protected TaskList tasks;
+    protected Ui ui;
+    protected Clock clock;
+    // Lead times in seconds, the longest (i.e. the earliest reminder) first
+    protected long[] leadSeconds;
+    protected TimingWheel<Reminder> wheel;
+    // The next reminder of every task with one pending, by the id of the task
+    protected Map<Long, Timeout<Reminder>> pending = new HashMap<>();
+    protected Thread poller;
+    protected boolean isClosed = false;
+
+    /**
+     * A reminder of a task, due at one of the lead times before the task is
+     */
+    protected static class Reminder {
+        protected long id;
+        protected Task task;
+        protected long dueSecond;
+        // Index of the lead time of this reminder
+        protected int lead;
+
+        protected Reminder(long id, Task task, long dueSecond, int lead) {
+            this.id = id;
+            this.task = task;
+            this.dueSecond = dueSecond;
+            this.lead = lead;
+        }
+    }
+
+    /**
+     * Construct a scheduler of the tasks in a list, subscribed to its changes
+     * @param tasks The task list
+     * @param ui Ui instance printing the reminders
+     * @param clock Clock giving the current time, whose zone gives the local time the dates of tasks are in
+     * @param leadMinutes Minutes before a task is due at which it is reminded of, 0 for when it is due
+     * @throws IllegalArgumentException This is thrown when a lead time is negative
+     */
+    public ReminderScheduler(TaskList tasks, Ui ui, Clock clock, long[] leadMinutes) {
+        this.tasks = tasks;
+        this.ui = ui;
+        this.clock = clock;
+        for (long minutes : leadMinutes) {
+            if (minutes < 0) {
+                throw new IllegalArgumentException("Lead time cannot be negative: " + minutes);
+            }
+        }
+        // Negated to be sorted the longest first
+        leadSeconds = Arrays.stream(leadMinutes).distinct().map(minutes -> -minutes * 60).sorted()
+                .map(seconds -> -seconds).toArray();
+        wheel = new TimingWheel<>(nowSecond());
+        tasks.subscribe(this, this::schedule);
+    }
+
+    /**
+     * Start the thread printing reminders as they come due, checking every second
+     */
+    public void start() {
+        synchronized (lock) {
+            if (poller != null || isClosed) {
+                return;
+            }
+            poller = new Thread(this::runPoller, "duke-reminder");
+            poller.setDaemon(true);
+            poller.start();
+        }
+    }
+
+    /**
+     * Print every reminder which has come due by the current time of the clock.
+     * The tasks are rendered while the list cannot change, and only their strings are handed to the Ui.
+     * @return Number of reminders printed
+     */
+    public int poll() {
+        List<Reminder> fired = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        long now;
+        // Tasks are changed under the monitor of the list, which is taken before the lock as the listener does
+        synchronized (tasks) {
+            synchronized (lock) {
+                now = nowSecond();
+                wheel.advance(now, fired::add);
+                for (Reminder reminder : fired) {
+                    pending.remove(reminder.id);
+                    scheduleFrom(reminder.id, reminder.task, reminder.dueSecond, reminder.lead + 1, now);
+                    lines.add(reminder.task.toString());
+                }
+            }
+        }
+        if (!lines.isEmpty()) {
+            ui.printReminders(lines, DateTime.ofEpochSecond(now));
+        }
+        return fired.size();
+    }
+
+    /**
+     * Get the number of tasks with a reminder pending
+     * @return Number of tasks still to be reminded of
+     */
+    public int size() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Keep the reminders in step with a change of the task list
+     * @param event The change made
+     */
+    @Override
+    public void onEvent(TaskEvent event) {
+        if (event instanceof TaskEvent.Added) {
+            schedule(event.getId(), event.getTask());
+        } else if (event instanceof TaskEvent.Replaced) {
+            cancel(event.getId());
+            schedule(event.getId(), event.getTask());
+        } else if (event instanceof TaskEvent.MarkedDone || event instanceof TaskEvent.Removed) {
+            cancel(event.getId());
+        } else if (event instanceof TaskEvent.Reset) {
+            synchronized (lock) {
+                pending.clear();
+                wheel = new TimingWheel<>(nowSecond());
+            }
+            tasks.visitAll(this::schedule);
+        }
+    }
+
+    /**
+     * Stop printing reminders and unsubscribe from the task list
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (lock) {
+            isClosed = true;
+            thread = poller;
+            lock.notifyAll();
+        }
+        tasks.getEvents().unsubscribe(this);
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Schedule the first reminder of a task which has not passed yet, if it is one to be reminded of
+     */
+    protected void schedule(long id, Task task) {
+        DateTime dateTime = task.getDateTime();
+        if (dateTime == null || task.isDone()) {
+            return;
+        }
+        synchronized (lock) {
+            scheduleFrom(id, task, dateTime.toEpochSecond(), 0, nowSecond());
+        }
+    }
+
+    /**
+     * Schedule the first reminder of a task from a lead time on, skipping those which have passed
+     */
+    protected void scheduleFrom(long id, Task task, long dueSecond, int lead, long now) {
+        for (int i = lead; i < leadSeconds.length; i += 1) {
+            long second = dueSecond - leadSeconds[i];
+            if (second >= now) {
+                pending.put(id, wheel.schedule(second, new Reminder(id, task, dueSecond, i)));
+                return;
+            }
+        }
+    }
+
+    protected void cancel(long id) {
+        synchronized (lock) {
+            Timeout<Reminder> timeout = pending.remove(id);
+            if (timeout != null) {
+                wheel.cancel(timeout);
+            }
+        }
+    }
+
+    /**
+     * Get the current time of the clock, as the seconds the dates of tasks are counted in
+     */
+    protected long nowSecond() {
+        return DateTime.now(clock).toEpochSecond();
+    }
+
+    protected void runPoller() {
+        while (true) {
+            synchronized (lock) {
+                if (isClosed) {
+                    return;
+                }
+                try {
+                    // Wake up right after the next second starts
+                    lock.wait(POLL_MILLIS - clock.millis() % POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (isClosed) {
+                    return;
+                }
+            }
+            poll();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package duke.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, holding timeouts which expire at given ticks (e.g. seconds) as time advances.
+ *
+ * There are LEVELS wheels of SLOTS slots each. A timeout due less than SLOTS^(l + 1) ticks from the current tick goes
+ * into level l, in the slot of its tick at that level. Whenever the current tick reaches a multiple of SLOTS^l, the
+ * slot of level l coming up is emptied into the lower levels, and every tick empties the slot of level 0 it reaches,
+ * expiring its timeouts. Scheduling and cancelling a timeout cost O(1), whatever the number of timeouts held, and a
+ * timeout is moved down at most LEVELS - 1 times before it expires. Timeouts further away than the top level can
+ * reach are kept in its last slot, and placed again each time that slot comes up.
+ *
+ * The wheel is not thread-safe, so its owner has to lock it.
+ * @param <T> Type of the payload of the timeouts
+ */
+public class TimingWheel<T> {
+    public static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    public static final int LEVELS = 6;
+
+    protected static final int SLOT_MASK = SLOTS - 1;
+    // Largest distance in ticks a timeout can be placed at, about 2177 years of seconds
+    protected static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+    protected static final int DUE_LEVEL = -1;
+
+    // Head of the list in each slot of each level, linked in a circle
+    protected Timeout<T>[][] slots;
+    // Head of the timeouts due at or before the current tick, not expired yet
+    protected Timeout<T> due = new Timeout<>(0, null);
+    // Number of timeouts in each level
+    protected int[] counts = new int[LEVELS];
+    protected int size = 0;
+    protected long currentTick;
+
+    /**
+     * Construct an empty wheel
+     * @param currentTick The tick to start from
+     */
+    public TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        @SuppressWarnings("unchecked")
+        Timeout<T>[][] emptySlots = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+        slots = emptySlots;
+        for (int level = 0; level < LEVELS; level += 1) {
+            for (int slot = 0; slot < SLOTS; slot += 1) {
+                slots[level][slot] = new Timeout<>(0, null);
+            }
+        }
+    }
+
+    /**
+     * Schedule a timeout
+     * @param tick The tick at which the timeout expires, expiring at the next advance() if it has already passed
+     * @param payload Payload handed over when the timeout expires
+     * @return The timeout scheduled, which can be cancelled
+     */
+    public Timeout<T> schedule(long tick, T payload) {
+        Timeout<T> timeout = new Timeout<>(tick, payload);
+        place(timeout);
+        size += 1;
+        return timeout;
+    }
+
+    /**
+     * Cancel a timeout, so that it never expires
+     * @param timeout The timeout to be cancelled
+     * @return Whether the timeout was still pending, i.e. neither expired nor cancelled before
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.next == null) {
+            return false;
+        }
+        unlink(timeout);
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Move the current tick forward, expiring every timeout due up to the new tick
+     * Ticks without any timeout due are skipped in steps as large as the empty lower levels allow, so that advancing
+     * over a long time (e.g. after the computer has slept) stays cheap.
+     * @param tick The new current tick, nothing happens if it is not after the current one
+     * @param expired Consumer of the payload of each timeout expiring, in the order of their ticks
+     */
+    public void advance(long tick, Consumer<? super T> expired) {
+        expireDue(expired);
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                break;
+            }
+            // Nothing happens before the next multiple of SLOTS^level, as all levels below are empty
+            int level = 0;
+            while (level < LEVELS - 1 && counts[level] == 0) {
+                level += 1;
+            }
+            long step = 1L << (SLOT_BITS * level);
+            currentTick = Math.min((currentTick | (step - 1)) + 1, tick);
+
+            for (int upper = LEVELS - 1; upper > 0; upper -= 1) {
+                if ((currentTick & ((1L << (SLOT_BITS * upper)) - 1)) == 0) {
+                    cascade(upper, (int) (currentTick >> (SLOT_BITS * upper)) & SLOT_MASK);
+                }
+            }
+            Timeout<T> head = slots[0][(int) currentTick & SLOT_MASK];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size -= 1;
+                expired.accept(timeout.payload);
+            }
+            expireDue(expired);
+        }
+    }
+
+    /**
+     * Get the number of timeouts pending
+     * @return Number of timeouts neither expired nor cancelled
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the current tick
+     * @return The tick the wheel has advanced to
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Put a timeout into the slot it belongs to, as seen from the current tick
+     */
+    protected void place(Timeout<T> timeout) {
+        long delta = timeout.tick - currentTick;
+        if (delta <= 0) {
+            link(due, timeout, DUE_LEVEL);
+            return;
+        }
+        delta = Math.min(delta, MAX_DELTA);
+        int level = 0;
+        while ((delta >>> (SLOT_BITS * (level + 1))) != 0) {
+            level += 1;
+        }
+        int slot = (int) ((currentTick + delta) >> (SLOT_BITS * level)) & SLOT_MASK;
+        link(slots[level][slot], timeout, level);
+    }
+
+    /**
+     * Empty a slot of an upper level, placing each of its timeouts again as seen from the current tick
+     */
+    protected void cascade(int level, int slot) {
+        Timeout<T> head = slots[level][slot];
+        Timeout<T> timeout = head.next;
+        head.next = head;
+        head.previous = head;
+        while (timeout != head) {
+            Timeout<T> next = timeout.next;
+            counts[level] -= 1;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    protected void expireDue(Consumer<? super T> expired) {
+        while (due.next != due) {
+            Timeout<T> timeout = due.next;
+            unlink(timeout);
+            size -= 1;
+            expired.accept(timeout.payload);
+        }
+    }
+
+    protected void link(Timeout<T> head, Timeout<T> timeout, int level) {
+        timeout.level = level;
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+        if (level != DUE_LEVEL) {
+            counts[level] += 1;
+        }
+    }
+
+    protected void unlink(Timeout<T> timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+        if (timeout.level != DUE_LEVEL) {
+            counts[timeout.level] -= 1;
+        }
+    }
+
+    /**
+     * A timeout held by a wheel, linked into the list of its slot while pending
+     * @param <T> Type of the payload
+     */
+    public static class Timeout<T> {
+        protected long tick;
+        protected T payload;
+        protected Timeout<T> previous = this;
+        protected Timeout<T> next = this;
+        protected int level;
+
+        protected Timeout(long tick, T payload) {
+            this.tick = tick;
+            this.payload = payload;
+        }
+
+        /**
+         * Get the tick at which the timeout expires
+         * @return The tick given when it was scheduled
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Get the payload of the timeout
+         * @return The payload given when it was scheduled
+         */
+        public T getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package duke.server;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import duke.Parser;
+import duke.TaskList;
+import duke.Ui;
+import duke.command.Command;
+import duke.command.CommandRegistry;
+import duke.metrics.CommandSample;
+import duke.metrics.CommandSample.Phase;
+import duke.metrics.Metrics;
+
+/**
+ * A server giving many clients access to the same task list over a local socket, one command line per line of
+ * input, with the same output as the console.
+ *
+ * Each connection is served by a thread of its own (a virtual thread when the JVM provides them), which reads and
+ * parses its commands and writes out their output. The commands themselves are queued to a single writer thread, so
+ * the task list (and its indexes, which are built and rebuilt lazily even by reading commands) is only ever touched
+ * by one thread. A command holds the writer only while it runs, not while its output is sent to a slow client.
+ *
+ * A server may also host the task lists of many users, kept in a tenant pool. A client then sends its user name as
+ * its first line, and works on the task list of that user only.
+ *
+ * Transactions are disabled, as a transaction of one client would take in the changes of all other clients.
+ * @see TenantPool
+ */
+public class DukeServer implements AutoCloseable {
+    // Prefix of an address naming a Unix domain socket, e.g. "unix:/tmp/duke.sock"
+    public static final String UNIX_PREFIX = "unix:";
+    public static final String[] DISABLED_COMMANDS = {"begin", "commit", "rollback"};
+
+    // The task list of all clients, or null if each user has a list of its own in the pool
+    protected TaskList tasks;
+    protected TenantPool pool;
+    protected String locale;
+    protected CommandRegistry registry;
+    protected ExecutorService writer = Executors.newSingleThreadExecutor();
+    protected ExecutorService connections = newConnectionExecutor();
+    protected ServerSocketChannel listener;
+    protected Path socketPath;
+
+    /**
+     * Construct a server of a task list
+     * @param tasks The task list shared by all clients
+     * @param locale Locale of the messages sent to the clients
+     */
+    public DukeServer(TaskList tasks, String locale) {
+        this(tasks, null, locale);
+    }
+
+    /**
+     * Construct a server of the task lists of many users
+     * @param pool The pool holding the task list of each user
+     * @param locale Locale of the messages sent to the clients
+     */
+    public DukeServer(TenantPool pool, String locale) {
+        this(null, pool, locale);
+    }
+
+    protected DukeServer(TaskList tasks, TenantPool pool, String locale) {
+        this.tasks = tasks;
+        this.pool = pool;
+        this.locale = locale;
+        registry = CommandRegistry.createDefault();
+        for (String name : DISABLED_COMMANDS) {
+            registry.disable(name);
+        }
+    }
+
+    /**
+     * Parse the address of a server, which must be on the loopback interface if it is a TCP socket
+     * @param address "unix:<path>" for a Unix domain socket, "<host>:<port>" or "<port>" for a TCP socket (on the
+     *     loopback interface if no host is given)
+     * @return The socket address
+     * @throws IllegalArgumentException This is thrown when the port is not a valid number, or the host is not a
+     *     loopback address
+     */
+    public static SocketAddress parseAddress(String address) {
+        return parseAddress(address, false);
+    }
+
+    /**
+     * Parse the address of a server
+     * Clients are not authenticated, so a TCP socket reachable from other hosts has to be asked for explicitly.
+     * @param address "unix:<path>" for a Unix domain socket, "<host>:<port>" or "<port>" for a TCP socket (on the
+     *     loopback interface if no host is given)
+     * @param isPublic Whether a TCP socket may be on an interface other than loopback (e.g. "0.0.0.0")
+     * @return The socket address
+     * @throws IllegalArgumentException This is thrown when the port is not a valid number, or the host is not a
+     *     loopback address while the socket is not public
+     */
+    public static SocketAddress parseAddress(String address, boolean isPublic) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        }
+        int colon = address.lastIndexOf(':');
+        int port = Integer.parseInt(address.substring(colon + 1));
+        if (colon < 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        }
+        InetSocketAddress result = new InetSocketAddress(address.substring(0, colon), port);
+        if (!isPublic && (result.isUnresolved() || !result.getAddress().isLoopbackAddress())) {
+            throw new IllegalArgumentException("Not a loopback address, which any host could connect to: " + address);
+        }
+        return result;
+    }
+
+    /**
+     * Accept connections until the server is closed
+     * @param address Address to listen at
+     * @throws IOException This is thrown when the address cannot be listened at
+     */
+    public void serve(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            socketPath = ((UnixDomainSocketAddress) address).getPath();
+            // A socket file left by a previous run would prevent binding
+            Files.deleteIfExists(socketPath);
+            listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            listener = ServerSocketChannel.open(StandardProtocolFamily.INET);
+        }
+        listener.bind(address);
+        try {
+            while (true) {
+                SocketChannel channel = listener.accept();
+                connections.execute(() -> handle(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by close(), stop accepting
+        }
+    }
+
+    /**
+     * Serve a single client until it disconnects or says bye
+     */
+    protected void handle(SocketChannel channel) {
+        PrintStream out = new PrintStream(Channels.newOutputStream(channel));
+        Ui ui = new Ui(Ui.DEFAULT_INDENT_CHARACTER, Ui.DEFAULT_INDENT_COUNT, locale,
+                Channels.newInputStream(channel), out);
+        TaskList tasks = this.tasks;
+        String user = null;
+        if (pool != null) {
+            ui.printUserPrompt();
+            String line = ui.read();
+            try {
+                if (line != null) {
+                    tasks = pool.acquire(line.trim());
+                    user = line.trim();
+                }
+            } catch (Exception e) {
+                ui.printException(e);
+                ui.printLine();
+            }
+            if (user == null) {
+                ui.close();
+                return;
+            }
+        }
+
+        Parser parser = new Parser(ui, tasks, registry);
+        ui.printWelcome();
+        while (true) {
+            String fullCommand = ui.read();
+            if (fullCommand == null) {
+                break;
+            }
+            CommandSample sample = Metrics.startSample();
+            ui.printLine();
+            boolean isExit = false;
+            Command cmd = null;
+            try {
+                cmd = parser.parse(fullCommand);
+                isExit = execute(cmd, sample);
+            } catch (Exception e) {
+                ui.printException(e);
+            } finally {
+                Metrics.enter(sample, Phase.RENDER);
+                ui.printLine();
+                ui.flush();
+                Metrics.finish(sample, cmd);
+            }
+            if (isExit) {
+                break;
+            }
+        }
+        if (user != null) {
+            try {
+                pool.release(user);
+            } catch (IOException e) {
+                ui.printException(e);
+            }
+        }
+        // Writes out the output left, then closes the channel along with the input stream
+        ui.close();
+    }
+
+    /**
+     * Run a command in the writer thread, waiting for it to finish
+     * @param cmd The command to run
+     * @param sample Sample of the command, null if metrics are disabled
+     * @return Whether the command ends the session
+     * @throws Exception This is thrown when the command fails
+     */
+    protected boolean execute(Command cmd, CommandSample sample) throws Exception {
+        // Time waiting for the writer counts towards execution
+        Metrics.enter(sample, Phase.EXECUTE);
+        Future<Boolean> result = writer.submit(() -> {
+            // Persist and render time is taken from the thread it is spent in
+            Metrics.enter(sample, Phase.EXECUTE);
+            try {
+                cmd.execute();
+            } finally {
+                Metrics.enter(sample, Phase.EXECUTE);
+            }
+            return cmd.isExit();
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stop accepting connections, and stop running commands once those already queued have finished
+     * @throws IOException This is thrown when the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (listener != null) {
+            listener.close();
+        }
+        if (socketPath != null) {
+            Files.deleteIfExists(socketPath);
+        }
+        connections.shutdown();
+        writer.shutdown();
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Create the executor of the connection threads, using virtual threads when the JVM provides them (Java 21+)
+     */
+    protected static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
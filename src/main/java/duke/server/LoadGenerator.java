@@ -0,0 +1,144 @@
+package duke.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import duke.Ui;
+
+/**
+ * A load generator for a running Duke server, reporting the throughput and latencies of mixed list/find/todo traffic.
+ * Every client sends its next command as soon as the response of the last one has arrived.
+ * For a server hosting a list per user, the clients log in as the given number of users in turn.
+ *
+ * Usage: java duke.server.LoadGenerator <address> [clients] [requests per client] [seed] [users]
+ * @see DukeServer
+ */
+public class LoadGenerator {
+    public static final int DEFAULT_CLIENTS = 16;
+    public static final int DEFAULT_REQUESTS = 2000;
+    public static final long DEFAULT_SEED = 42;
+    // Share of each kind of request, in percent: the rest are todo
+    public static final int LIST_PERCENT = 45;
+    public static final int FIND_PERCENT = 45;
+
+    public static final String USAGE =
+            "Usage: java duke.server.LoadGenerator <address> [clients] [requests per client] [seed] [users]";
+
+    protected static final String[] WORDS = {"read", "book", "buy", "milk", "call", "mum", "submit", "report"};
+
+    /**
+     * Entry point of the load generator
+     * @param args Address of the server, then optionally the number of clients, requests per client, the seed and the
+     *     number of users (0 for a server without users)
+     * @throws Exception This is thrown when a client cannot connect or loses its connection
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        // Only a server listens at the address, so it may be on another host
+        SocketAddress address = DukeServer.parseAddress(args[0], true);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CLIENTS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REQUESTS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        int users = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        ArrayList<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i += 1) {
+            Random random = new Random(seed + i);
+            String user = users > 0 ? "user" + (i % users) : null;
+            results.add(executor.submit((Callable<long[]>) () -> runClient(address, user, requests, random)));
+        }
+        long[] latencies = new long[clients * requests];
+        for (int i = 0; i < clients; i += 1) {
+            System.arraycopy(results.get(i).get(), 0, latencies, i * requests, requests);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("requests:   %d (%d clients)%n", latencies.length, clients);
+        System.out.printf("throughput: %.0f requests/s%n", latencies.length / (elapsed / 1e9));
+        System.out.printf("p50:        %.3f ms%n", percentile(latencies, 0.50) / 1e6);
+        System.out.printf("p99:        %.3f ms%n", percentile(latencies, 0.99) / 1e6);
+        System.out.printf("max:        %.3f ms%n", latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * Send requests over a connection of its own, one at a time, after logging in as the user if there is one
+     * @return Latency of each request in nanoseconds
+     */
+    protected static long[] runClient(SocketAddress address, String user, int requests, Random random)
+            throws IOException {
+        long[] latencies = new long[requests];
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel)));
+            PrintStream out = new PrintStream(Channels.newOutputStream(channel));
+            if (user != null) {
+                // The user prompt ends with a single line
+                readUntilLines(in, 1);
+                out.println(user);
+                out.flush();
+            }
+            // The welcome message ends with a single line
+            readUntilLines(in, 1);
+            for (int i = 0; i < requests; i += 1) {
+                String command = nextCommand(random);
+                long start = System.nanoTime();
+                out.println(command);
+                out.flush();
+                // Every response is put between two lines
+                readUntilLines(in, 2);
+                latencies[i] = System.nanoTime() - start;
+            }
+            out.println("bye");
+            out.flush();
+        }
+        return latencies;
+    }
+
+    protected static String nextCommand(Random random) {
+        int kind = random.nextInt(100);
+        String word = WORDS[random.nextInt(WORDS.length)];
+        if (kind < LIST_PERCENT) {
+            return "list /page 1";
+        } else if (kind < LIST_PERCENT + FIND_PERCENT) {
+            return "find " + word;
+        } else {
+            return "todo " + word + " " + random.nextInt(1_000_000);
+        }
+    }
+
+    protected static void readUntilLines(BufferedReader in, int count) throws IOException {
+        int seen = 0;
+        while (seen < count) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Connection closed by the server");
+            }
+            if (line.trim().equals(Ui.LONG_LINE)) {
+                seen += 1;
+            }
+        }
+    }
+
+    protected static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
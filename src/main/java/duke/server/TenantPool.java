@@ -0,0 +1,257 @@
+package duke.server;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import duke.Storage;
+import duke.TaskList;
+import duke.exception.InvalidInputException;
+import duke.exception.InvalidInputException.InputExceptionType;
+import duke.exception.SaveException;
+
+/**
+ * The task lists of many users in a single process, each saved into a file of its own in a directory.
+ *
+ * A list is loaded on its first use, and stays in memory while it is in use and for as long as the memory budget
+ * allows afterwards. Once the lists in memory are estimated to take more than the budget, those not in use are
+ * evicted, least recently used first. Evicting a list only closes its storage, as every change is saved (or queued
+ * to be saved) as soon as it is made.
+ *
+ * The memory taken by a list is estimated from its number of tasks. Lists in use are never evicted, so the budget
+ * can be exceeded while many users are connected at the same time.
+ *
+ * A list is loaded without holding the lock of the pool, so that a large save file or log only holds up the users of
+ * that list. Its entry is put into the pool first, and whoever asks for the list meanwhile waits for it to be loaded.
+ */
+public class TenantPool implements AutoCloseable {
+    public static final String SAVE_SUFFIX = ".save";
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    // Rough heap taken by an empty list with its storage, and by each task in it
+    public static final long ESTIMATED_BYTES_PER_LIST = 4096;
+    public static final long ESTIMATED_BYTES_PER_TASK = 200;
+
+    protected static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    protected Path directory;
+    protected long memoryBudget;
+    protected Function<String, Storage> storageFactory;
+    // Lists in memory, least recently used first
+    protected LinkedHashMap<String, Tenant> tenants = new LinkedHashMap<>(16, 0.75f, true);
+    protected long estimatedBytes = 0;
+
+    /**
+     * Construct a pool of task lists
+     * @param directory Directory holding the save file of every user
+     * @param memoryBudget Number of bytes the lists not in use may take before being evicted
+     * @param storageFactory Factory of the storage of a list, given the path of its save file
+     */
+    public TenantPool(Path directory, long memoryBudget, Function<String, Storage> storageFactory) {
+        this.directory = directory;
+        this.memoryBudget = memoryBudget;
+        this.storageFactory = storageFactory;
+    }
+
+    /**
+     * Get the task list of a user for use, loading it if it is not in memory.
+     * A user without a save file starts with an empty list.
+     * @param user Name of the user, made of letters, digits, '-' and '_'
+     * @return The task list of the user, which must be given back with release() after use
+     * @throws InvalidInputException This is thrown when the user name is not valid
+     * @throws IOException This is thrown when file reading encounters an error
+     * @throws SaveException This is thrown when the save file of the user cannot be loaded
+     */
+    public TaskList acquire(String user) throws InvalidInputException, IOException, SaveException {
+        if (!USER_NAME.matcher(user).matches()) {
+            throw new InvalidInputException(InputExceptionType.INVALID_USER);
+        }
+        while (true) {
+            Tenant tenant;
+            boolean isLoader = false;
+            synchronized (this) {
+                tenant = tenants.get(user);
+                if (tenant == null) {
+                    tenant = new Tenant();
+                    tenants.put(user, tenant);
+                    isLoader = true;
+                }
+            }
+            if (isLoader) {
+                load(user, tenant);
+            }
+            await(tenant);
+            synchronized (this) {
+                if (tenants.get(user) == tenant) {
+                    tenant.users += 1;
+                    evict();
+                    return tenant.tasks;
+                }
+                // Evicted right after being loaded, or the pool was closed meanwhile, so it is loaded again
+            }
+        }
+    }
+
+    /**
+     * Give back a task list got from acquire(), which may then be evicted
+     * @param user Name of the user
+     * @throws IOException This is thrown when the storage of an evicted list cannot be closed
+     */
+    public synchronized void release(String user) throws IOException {
+        Tenant tenant = tenants.get(user);
+        if (tenant == null || tenant.users == 0) {
+            throw new IllegalStateException("Task list of " + user + " is not in use");
+        }
+        tenant.users -= 1;
+        // The list may have grown or shrunk while it was in use
+        long bytes = estimate(tenant.tasks);
+        estimatedBytes += bytes - tenant.estimatedBytes;
+        tenant.estimatedBytes = bytes;
+        evict();
+    }
+
+    /**
+     * Get the number of task lists in memory
+     * @return Number of lists loaded or being loaded, and not evicted yet
+     */
+    public synchronized int size() {
+        return tenants.size();
+    }
+
+    /**
+     * Close the storage of every list in memory
+     * @throws IOException This is thrown when a storage cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Tenant tenant : tenants.values()) {
+            if (tenant.storage == null) {
+                // Still being loaded, its loader closes it
+                continue;
+            }
+            try {
+                tenant.storage.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        tenants.clear();
+        estimatedBytes = 0;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Load the list of a user into its entry without holding the lock, then let those waiting for it go on
+     */
+    protected void load(String user, Tenant tenant) throws IOException, SaveException {
+        Storage storage;
+        TaskList tasks;
+        try {
+            Files.createDirectories(directory);
+            String filepath = directory.resolve(user + SAVE_SUFFIX).toString();
+            storage = storageFactory.apply(filepath);
+            try {
+                tasks = storage.load();
+            } catch (SaveException e) {
+                if (Files.exists(Path.of(filepath))) {
+                    // A damaged save file must not be replaced by an empty list
+                    storage.close();
+                    throw e;
+                }
+                tasks = storage.createTaskList();
+            }
+        } catch (IOException | SaveException | RuntimeException e) {
+            synchronized (this) {
+                tenants.remove(user, tenant);
+            }
+            tenant.loaded.completeExceptionally(e);
+            throw e;
+        }
+
+        boolean isClosed;
+        synchronized (this) {
+            tenant.tasks = tasks;
+            tenant.storage = storage;
+            tenant.estimatedBytes = estimate(tasks);
+            isClosed = tenants.get(user) != tenant;
+            if (!isClosed) {
+                estimatedBytes += tenant.estimatedBytes;
+            }
+        }
+        tenant.loaded.complete(null);
+        if (isClosed) {
+            storage.close();
+        }
+    }
+
+    /**
+     * Wait for the list of an entry to be loaded by another thread
+     */
+    protected static void await(Tenant tenant) throws IOException, SaveException {
+        try {
+            tenant.loaded.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a task list to be loaded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SaveException) {
+                throw (SaveException) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    /**
+     * Evict lists not in use, least recently used first, until the lists in memory fit into the budget
+     */
+    protected void evict() throws IOException {
+        IOException failure = null;
+        Iterator<Map.Entry<String, Tenant>> iterator = tenants.entrySet().iterator();
+        while (estimatedBytes > memoryBudget && iterator.hasNext()) {
+            Tenant tenant = iterator.next().getValue();
+            if (tenant.users > 0 || tenant.storage == null) {
+                // In use, or still being loaded
+                continue;
+            }
+            iterator.remove();
+            estimatedBytes -= tenant.estimatedBytes;
+            try {
+                tenant.storage.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    protected static long estimate(TaskList tasks) {
+        return ESTIMATED_BYTES_PER_LIST + tasks.size() * ESTIMATED_BYTES_PER_TASK;
+    }
+
+    /**
+     * A task list in memory, with its storage and the number of connections using it.
+     * The list and its storage are only set once loaded, as signalled by the future.
+     */
+    protected static class Tenant {
+        protected TaskList tasks;
+        protected Storage storage;
+        protected int users = 0;
+        protected long estimatedBytes = 0;
+        protected CompletableFuture<Void> loaded = new CompletableFuture<>();
+    }
+}
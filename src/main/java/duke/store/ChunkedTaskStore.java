@@ -0,0 +1,445 @@
+package duke.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import duke.MappedTaskSource;
+import duke.task.Task;
+
+/**
+ * A task store made of fixed-size chunks of slots, where removing a task only marks its slot as dead.
+ *
+ * Every chunk keeps a bitmap of its live slots, and a Fenwick tree over the number of live slots per chunk finds the
+ * slot of a position in O(log(chunks)) plus a scan of one bitmap. While nothing has been removed, a position is its
+ * own slot. Dead slots are compacted away once they outnumber the live ones, so removing is O(1) amortized and no
+ * removal ever shifts the whole list.
+ */
+public class ChunkedTaskStore implements TaskStore {
+    public static final int CHUNK_SHIFT = 10;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    // Dead slots are compacted once there are at least this many of them and they outnumber the live ones
+    public static final int MIN_COMPACTION_TOMBSTONES = CHUNK_SIZE;
+
+    protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    protected static final int WORDS_PER_CHUNK = CHUNK_SIZE / Long.SIZE;
+
+    protected Chunk[] chunks = new Chunk[1];
+    // Fenwick tree over the live slots of each chunk, tree[i] covering chunks (i - lowbit(i), i] counted from 1
+    protected int[] tree = new int[2];
+    // Slots used so far, live or dead
+    protected int slotCount = 0;
+    protected int size = 0;
+    protected long nextId = 0;
+
+    protected MappedTaskSource source;
+    protected int undecodedCount = 0;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        int slot = slotOf(index);
+        return decode(chunks[slot >>> CHUNK_SHIFT], slot & CHUNK_MASK);
+    }
+
+    @Override
+    public long getId(int index) {
+        int slot = slotOf(index);
+        return chunks[slot >>> CHUNK_SHIFT].ids[slot & CHUNK_MASK];
+    }
+
+    @Override
+    public Task getById(long id) {
+        if (slotCount == 0) {
+            return null;
+        }
+        // Ids increase with the slots, find the last chunk starting at or before this id
+        int lastChunk = (slotCount - 1) >>> CHUNK_SHIFT;
+        int low = 0;
+        int high = lastChunk;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (chunks[middle].ids[0] <= id) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        Chunk chunk = chunks[low];
+        int limit = low == lastChunk ? ((slotCount - 1) & CHUNK_MASK) + 1 : CHUNK_SIZE;
+
+        // Ids in a chunk are consecutive unless it has been compacted, so try the direct position first
+        long guess = id - chunk.ids[0];
+        int offset;
+        if (guess >= 0 && guess < limit && chunk.ids[(int) guess] == id) {
+            offset = (int) guess;
+        } else {
+            offset = Arrays.binarySearch(chunk.ids, 0, limit, id);
+            if (offset < 0) {
+                return null;
+            }
+        }
+        return chunk.isLive(offset) ? decode(chunk, offset) : null;
+    }
+
+    @Override
+    public long add(Task task) {
+        int slot = slotCount;
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            rebuildTree();
+        }
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = new Chunk();
+        }
+        Chunk chunk = chunks[chunkIndex];
+        int offset = slot & CHUNK_MASK;
+        long id = nextId;
+        nextId += 1;
+        chunk.tasks[offset] = task;
+        chunk.ids[offset] = id;
+        chunk.setLive(offset, true);
+        addToTree(chunkIndex, 1);
+        slotCount += 1;
+        size += 1;
+        return id;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        int slot = slotOf(index);
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int offset = slot & CHUNK_MASK;
+        Task oldTask = decode(chunk, offset);
+        chunk.tasks[offset] = task;
+        return oldTask;
+    }
+
+    @Override
+    public Task markAsDone(int index) {
+        Task task = get(index);
+        task.markAsDone();
+        return task;
+    }
+
+    @Override
+    public Task remove(int index) {
+        int slot = slotOf(index);
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        Chunk chunk = chunks[chunkIndex];
+        int offset = slot & CHUNK_MASK;
+        Task task = decode(chunk, offset);
+        chunk.tasks[offset] = null;
+        chunk.setLive(offset, false);
+        addToTree(chunkIndex, -1);
+        size -= 1;
+        reclaimDeadSlots();
+        return task;
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indexes) {
+        // Find every slot first, as positions move once a task is removed
+        int[] slots = new int[indexes.length];
+        for (int i = 0; i < indexes.length; i += 1) {
+            slots[i] = slotOf(indexes[i]);
+        }
+        List<Task> removed = new ArrayList<>(indexes.length);
+        for (int slot : slots) {
+            Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+            int offset = slot & CHUNK_MASK;
+            removed.add(decode(chunk, offset));
+            chunk.tasks[offset] = null;
+            chunk.setLive(offset, false);
+        }
+        size -= indexes.length;
+        rebuildTree();
+        reclaimDeadSlots();
+        return removed;
+    }
+
+    @Override
+    public void setSource(MappedTaskSource source) {
+        int count = source.size();
+        int chunkCount = (count + CHUNK_MASK) >>> CHUNK_SHIFT;
+        chunks = new Chunk[Math.max(1, chunkCount)];
+        for (int i = 0; i < chunkCount; i += 1) {
+            Chunk chunk = new Chunk();
+            chunk.records = new int[CHUNK_SIZE];
+            int slots = Math.min(CHUNK_SIZE, count - (i << CHUNK_SHIFT));
+            for (int offset = 0; offset < slots; offset += 1) {
+                int slot = (i << CHUNK_SHIFT) | offset;
+                chunk.ids[offset] = slot;
+                chunk.records[offset] = slot;
+                chunk.setLive(offset, true);
+            }
+            chunks[i] = chunk;
+        }
+        slotCount = count;
+        size = count;
+        nextId = count;
+        undecodedCount = count;
+        this.source = count == 0 ? null : source;
+        rebuildTree();
+    }
+
+    @Override
+    public MappedTaskSource getSource() {
+        return source;
+    }
+
+    @Override
+    public boolean hasUndecoded() {
+        return undecodedCount > 0;
+    }
+
+    @Override
+    public int getUndecodedRecord(int index) {
+        if (undecodedCount == 0) {
+            return -1;
+        }
+        int slot = slotOf(index);
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int offset = slot & CHUNK_MASK;
+        return chunk.tasks[offset] == null ? chunk.records[offset] : -1;
+    }
+
+    @Override
+    public Iterator<Task> iterator(int from, int to) {
+        int end = Math.min(to, size);
+        if (from >= end) {
+            return Collections.emptyIterator();
+        }
+        int start = slotOf(from);
+        return new Iterator<Task>() {
+            private int slot = start;
+            private int remaining = end - from;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Task next() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException();
+                }
+                slot = nextLiveSlot(slot);
+                Task task = decode(chunks[slot >>> CHUNK_SHIFT], slot & CHUNK_MASK);
+                slot += 1;
+                remaining -= 1;
+                return task;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(TaskVisitor visitor) {
+        int slot = 0;
+        for (int i = 0; i < size; i += 1) {
+            slot = nextLiveSlot(slot);
+            Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+            int offset = slot & CHUNK_MASK;
+            visitor.visit(chunk.ids[offset], decode(chunk, offset));
+            slot += 1;
+        }
+    }
+
+    /**
+     * Find the slot holding the task at a position
+     */
+    protected int slotOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == slotCount) {
+            // No dead slot, every task is in the slot of its position
+            return index;
+        }
+        // Descend the Fenwick tree to the chunk holding the (index + 1)-th live slot
+        int chunkIndex = 0;
+        int rank = index;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>>= 1) {
+            int next = chunkIndex + step;
+            if (next < tree.length && tree[next] <= rank) {
+                chunkIndex = next;
+                rank -= tree[next];
+            }
+        }
+        return (chunkIndex << CHUNK_SHIFT) | chunks[chunkIndex].select(rank);
+    }
+
+    /**
+     * Find the first live slot at or after the given slot, which must exist
+     */
+    protected int nextLiveSlot(int slot) {
+        if (size == slotCount) {
+            return slot;
+        }
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        int word = (slot & CHUNK_MASK) >>> 6;
+        long bits = chunks[chunkIndex].live[word] & (-1L << slot);
+        while (bits == 0) {
+            word += 1;
+            if (word == WORDS_PER_CHUNK) {
+                word = 0;
+                chunkIndex += 1;
+            }
+            bits = chunks[chunkIndex].live[word];
+        }
+        return (chunkIndex << CHUNK_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Get a task in a live slot, decoding it from the source if it has not been decoded yet
+     */
+    protected Task decode(Chunk chunk, int offset) {
+        Task task = chunk.tasks[offset];
+        if (task == null) {
+            task = source.decode(chunk.records[offset]);
+            chunk.tasks[offset] = task;
+            undecodedCount -= 1;
+            if (undecodedCount == 0) {
+                // Every task has been decoded, the source and the record numbers are no longer needed
+                source = null;
+                for (Chunk c : chunks) {
+                    if (c != null) {
+                        c.records = null;
+                    }
+                }
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Reuse the dead slots at the end, and compact the store once dead slots outnumber the live ones
+     */
+    protected void reclaimDeadSlots() {
+        while (slotCount > 0 && !chunks[(slotCount - 1) >>> CHUNK_SHIFT].isLive((slotCount - 1) & CHUNK_MASK)) {
+            slotCount -= 1;
+        }
+        int tombstones = slotCount - size;
+        if (tombstones >= MIN_COMPACTION_TOMBSTONES && tombstones > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Move all live slots to the front, keeping their order and ids
+     */
+    protected void compact() {
+        Chunk[] oldChunks = chunks;
+        int oldSlotCount = slotCount;
+        chunks = new Chunk[Math.max(1, (size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        slotCount = 0;
+        for (int oldSlot = 0; oldSlot < oldSlotCount; oldSlot += 1) {
+            Chunk oldChunk = oldChunks[oldSlot >>> CHUNK_SHIFT];
+            int oldOffset = oldSlot & CHUNK_MASK;
+            if (!oldChunk.isLive(oldOffset)) {
+                continue;
+            }
+            int chunkIndex = slotCount >>> CHUNK_SHIFT;
+            int offset = slotCount & CHUNK_MASK;
+            if (chunks[chunkIndex] == null) {
+                chunks[chunkIndex] = new Chunk();
+            }
+            Chunk chunk = chunks[chunkIndex];
+            chunk.tasks[offset] = oldChunk.tasks[oldOffset];
+            chunk.ids[offset] = oldChunk.ids[oldOffset];
+            chunk.setLive(offset, true);
+            if (oldChunk.tasks[oldOffset] == null) {
+                if (chunk.records == null) {
+                    chunk.records = new int[CHUNK_SIZE];
+                }
+                chunk.records[offset] = oldChunk.records[oldOffset];
+            }
+            slotCount += 1;
+        }
+        rebuildTree();
+    }
+
+    protected void addToTree(int chunkIndex, int delta) {
+        for (int i = chunkIndex + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    protected void rebuildTree() {
+        tree = new int[chunks.length + 1];
+        for (int i = 1; i < tree.length; i += 1) {
+            Chunk chunk = chunks[i - 1];
+            tree[i] += chunk == null ? 0 : chunk.liveCount;
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * A fixed number of slots, each holding a task (null if not decoded yet) and its id
+     */
+    protected static class Chunk {
+        protected Task[] tasks = new Task[CHUNK_SIZE];
+        protected long[] ids = new long[CHUNK_SIZE];
+        protected long[] live = new long[WORDS_PER_CHUNK];
+        // Numbers in the source of the tasks not decoded yet, null if the chunk has none
+        protected int[] records;
+        protected int liveCount = 0;
+
+        protected boolean isLive(int offset) {
+            return (live[offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        protected void setLive(int offset, boolean isLive) {
+            if (isLive) {
+                live[offset >>> 6] |= 1L << offset;
+                liveCount += 1;
+            } else {
+                live[offset >>> 6] &= ~(1L << offset);
+                liveCount -= 1;
+            }
+        }
+
+        /**
+         * Find the offset of the (rank + 1)-th live slot in this chunk
+         */
+        protected int select(int rank) {
+            for (int word = 0; word < WORDS_PER_CHUNK; word += 1) {
+                long bits = live[word];
+                int count = Long.bitCount(bits);
+                if (rank < count) {
+                    return (word << 6) | selectInWord(bits, rank);
+                }
+                rank -= count;
+            }
+            throw new IllegalStateException("Live slot counts are inconsistent");
+        }
+
+        /**
+         * Find the position of the (rank + 1)-th set bit in a word, halving the range searched at every step
+         */
+        protected static int selectInWord(long bits, int rank) {
+            int position = 0;
+            for (int width = 32; width > 0; width >>>= 1) {
+                int count = Long.bitCount(bits & ((1L << width) - 1));
+                if (rank >= count) {
+                    rank -= count;
+                    bits >>>= width;
+                    position += width;
+                }
+            }
+            return position;
+        }
+    }
+}
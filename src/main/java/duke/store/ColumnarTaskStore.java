@@ -0,0 +1,333 @@
+package duke.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import duke.DateTime;
+import duke.MappedTaskSource;
+import duke.TaskCodec;
+import duke.exception.InvalidInputException;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * A task store keeping every field of the tasks in its own primitive column, instead of one object per task.
+ *
+ * Columns:
+ * | column       | content                                                      |
+ * |--------------|--------------------------------------------------------------|
+ * | types        | type tag of each task, as in TaskCodec (1 byte)              |
+ * | done         | done flag of each task (1 bit)                               |
+ * | epochSeconds | 'by' or 'at' dateTime of each task, 0 for todos (8 bytes)    |
+ * | ids          | id of each task (8 bytes)                                    |
+ * | descriptions | offset and length of its description in the arena (8 bytes) |
+ *
+ * Descriptions are kept as UTF-8 bytes one after another in a shared arena. The task objects handed out are views
+ * built from the columns on every access, so a view does not see later changes of its task, and changing a view
+ * does not change the store: use markAsDone() and set() instead.
+ *
+ * Tasks of a mapped save file are decoded into the columns right away, so no task is ever left undecoded. Removing
+ * a task shifts the columns after it, like an array list does, while removing many at once shifts them only once.
+ * @see TaskCodec
+ */
+public class ColumnarTaskStore implements TaskStore {
+    public static final int INITIAL_CAPACITY = 16;
+    // The arena is compacted once at least this many bytes are unused and they outnumber the used ones
+    public static final int MIN_COMPACTION_GARBAGE = 1 << 16;
+
+    protected byte[] types = new byte[INITIAL_CAPACITY];
+    protected BitSet done = new BitSet();
+    protected long[] epochSeconds = new long[INITIAL_CAPACITY];
+    protected long[] ids = new long[INITIAL_CAPACITY];
+    protected int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    protected int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    protected byte[] arena = new byte[INITIAL_CAPACITY * Long.BYTES];
+    // Bytes of the arena used so far, and how many of them belong to descriptions no longer in the store
+    protected int arenaSize = 0;
+    protected int arenaGarbage = 0;
+    protected int size = 0;
+    protected long nextId = 0;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        return view(index);
+    }
+
+    @Override
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    @Override
+    public Task getById(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index < 0 ? null : view(index);
+    }
+
+    @Override
+    public long add(Task task) {
+        if (size == types.length) {
+            grow();
+        }
+        long id = nextId;
+        nextId += 1;
+        ids[size] = id;
+        size += 1;
+        write(size - 1, task);
+        return id;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task oldTask = get(index);
+        arenaGarbage += descriptionLengths[index];
+        write(index, task);
+        compactIfNeeded();
+        return oldTask;
+    }
+
+    @Override
+    public Task markAsDone(int index) {
+        checkIndex(index);
+        done.set(index);
+        return view(index);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task task = get(index);
+        arenaGarbage += descriptionLengths[index];
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(epochSeconds, index + 1, epochSeconds, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(descriptionOffsets, index + 1, descriptionOffsets, index, moved);
+        System.arraycopy(descriptionLengths, index + 1, descriptionLengths, index, moved);
+        BitSet doneAfter = done.get(index + 1, size);
+        done.clear(index, size);
+        for (int i = doneAfter.nextSetBit(0); i >= 0; i = doneAfter.nextSetBit(i + 1)) {
+            done.set(index + i);
+        }
+        size -= 1;
+        compactIfNeeded();
+        return task;
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indexes) {
+        List<Task> removed = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            removed.add(get(index));
+            arenaGarbage += descriptionLengths[index];
+        }
+        if (indexes.length == 0) {
+            return removed;
+        }
+        // Move each run of tasks kept between two removed ones forward, right after the tasks kept so far
+        int kept = indexes[0];
+        for (int i = 0; i < indexes.length; i += 1) {
+            int runStart = indexes[i] + 1;
+            int runEnd = i + 1 < indexes.length ? indexes[i + 1] : size;
+            int moved = runEnd - runStart;
+            System.arraycopy(types, runStart, types, kept, moved);
+            System.arraycopy(epochSeconds, runStart, epochSeconds, kept, moved);
+            System.arraycopy(ids, runStart, ids, kept, moved);
+            System.arraycopy(descriptionOffsets, runStart, descriptionOffsets, kept, moved);
+            System.arraycopy(descriptionLengths, runStart, descriptionLengths, kept, moved);
+            for (int j = 0; j < moved; j += 1) {
+                done.set(kept + j, done.get(runStart + j));
+            }
+            kept += moved;
+        }
+        done.clear(kept, size);
+        size = kept;
+        compactIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public void setSource(MappedTaskSource source) {
+        int count = source.size();
+        int capacity = Math.max(INITIAL_CAPACITY, count);
+        types = new byte[capacity];
+        done = new BitSet();
+        epochSeconds = new long[capacity];
+        ids = new long[capacity];
+        descriptionOffsets = new int[capacity];
+        descriptionLengths = new int[capacity];
+        arena = new byte[capacity * Long.BYTES];
+        arenaSize = 0;
+        arenaGarbage = 0;
+        size = 0;
+        nextId = 0;
+        for (int record = 0; record < count; record += 1) {
+            add(source.decode(record));
+        }
+    }
+
+    /**
+     * Every task is decoded as soon as the source is set, so there is never a source to return
+     */
+    @Override
+    public MappedTaskSource getSource() {
+        return null;
+    }
+
+    @Override
+    public boolean hasUndecoded() {
+        return false;
+    }
+
+    @Override
+    public int getUndecodedRecord(int index) {
+        return -1;
+    }
+
+    @Override
+    public Iterator<Task> iterator(int from, int to) {
+        int end = Math.min(to, size);
+        if (from >= end) {
+            return Collections.emptyIterator();
+        }
+        return new Iterator<Task>() {
+            private int index = from;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public Task next() {
+                if (index >= end) {
+                    throw new NoSuchElementException();
+                }
+                Task task = view(index);
+                index += 1;
+                return task;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(TaskVisitor visitor) {
+        for (int i = 0; i < size; i += 1) {
+            visitor.visit(ids[i], view(i));
+        }
+    }
+
+    /**
+     * Estimate the number of bytes taken by the columns and the arena, excluding unused capacity of the BitSet
+     * @return Bytes taken by this store
+     */
+    public long getFootprint() {
+        long capacity = types.length;
+        return capacity * (Byte.BYTES + Long.BYTES * 2 + Integer.BYTES * 2) + arena.length + done.size() / Byte.SIZE;
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Build a task out of the columns of a position
+     */
+    protected Task view(int index) {
+        String description = new String(arena, descriptionOffsets[index], descriptionLengths[index],
+                StandardCharsets.UTF_8);
+        Task task;
+        try {
+            switch (types[index]) {
+            case TaskCodec.TYPE_DEADLINE:
+                task = new Deadline(description, DateTime.ofEpochSecond(epochSeconds[index]));
+                break;
+            case TaskCodec.TYPE_EVENT:
+                task = new Event(description, DateTime.ofEpochSecond(epochSeconds[index]));
+                break;
+            default:
+                task = new ToDo(description);
+                break;
+            }
+        } catch (InvalidInputException e) {
+            // Empty description, which a task written into the store never has
+            throw new IllegalStateException(e);
+        }
+        if (done.get(index)) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Write the fields of a task into the columns of a position, appending its description to the arena
+     */
+    protected void write(int index, Task task) {
+        if (task instanceof ToDo) {
+            types[index] = TaskCodec.TYPE_TODO;
+            epochSeconds[index] = 0;
+        } else if (task instanceof Deadline) {
+            types[index] = TaskCodec.TYPE_DEADLINE;
+            epochSeconds[index] = ((Deadline) task).getByDateTime().toEpochSecond();
+        } else if (task instanceof Event) {
+            types[index] = TaskCodec.TYPE_EVENT;
+            epochSeconds[index] = ((Event) task).getAtDateTime().toEpochSecond();
+        } else {
+            throw new IllegalArgumentException("Task type cannot be stored: " + task.getClass().getName());
+        }
+        done.set(index, task.isDone());
+
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + description.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + description.length));
+        }
+        System.arraycopy(description, 0, arena, arenaSize, description.length);
+        descriptionOffsets[index] = arenaSize;
+        descriptionLengths[index] = description.length;
+        arenaSize += description.length;
+    }
+
+    protected void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    /**
+     * Copy the descriptions still in the store into a new arena, in the order of the list
+     */
+    protected void compactIfNeeded() {
+        if (arenaGarbage < MIN_COMPACTION_GARBAGE || arenaGarbage <= arenaSize - arenaGarbage) {
+            return;
+        }
+        byte[] newArena = new byte[Math.max(INITIAL_CAPACITY * Long.BYTES, (arenaSize - arenaGarbage) * 2)];
+        int newSize = 0;
+        for (int i = 0; i < size; i += 1) {
+            System.arraycopy(arena, descriptionOffsets[i], newArena, newSize, descriptionLengths[i]);
+            descriptionOffsets[i] = newSize;
+            newSize += descriptionLengths[i];
+        }
+        arena = newArena;
+        arenaSize = newSize;
+        arenaGarbage = 0;
+    }
+}
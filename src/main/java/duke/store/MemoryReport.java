@@ -0,0 +1,82 @@
+package duke.store;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Supplier;
+
+import duke.DateTime;
+import duke.exception.InvalidInputException;
+import duke.task.Deadline;
+import duke.task.Event;
+import duke.task.Task;
+import duke.task.ToDo;
+
+/**
+ * Report of the heap taken by each kind of task store, filled with the same synthetic tasks.
+ * The heap retained by a store is measured as the growth of the used heap after a full collection, then reported
+ * per task, so that the stores can be compared at any number of tasks.
+ *
+ * Usage: java duke.store.MemoryReport [number of tasks]
+ */
+public class MemoryReport {
+    public static final int DEFAULT_TASK_COUNT = 1_000_000;
+
+    /**
+     * Entry point of the report
+     * @param args Number of tasks to fill each store with, optional
+     * @throws InvalidInputException Never thrown, as every synthetic task has a description
+     */
+    public static void main(String[] args) throws InvalidInputException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        System.out.printf("%-20s %15s %15s%n", "store", "retained bytes", "bytes per task");
+        report("ChunkedTaskStore", ChunkedTaskStore::new, count);
+        report("ColumnarTaskStore", ColumnarTaskStore::new, count);
+    }
+
+    protected static void report(String name, Supplier<TaskStore> factory, int count)
+            throws InvalidInputException {
+        long before = usedHeap();
+        TaskStore store = factory.get();
+        for (int i = 0; i < count; i += 1) {
+            store.add(createTask(i));
+        }
+        long retained = usedHeap() - before;
+        System.out.printf("%-20s %15d %15.1f%n", name, retained, (double) retained / count);
+        // Keep the store reachable until it has been measured
+        if (store.size() != count) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Create the i-th synthetic task, cycling through all task types with short descriptions of varying length
+     */
+    protected static Task createTask(int i) throws InvalidInputException {
+        String description = "task number " + i;
+        DateTime dateTime = DateTime.ofEpochSecond(1_600_000_000L + i * 3600L);
+        Task task;
+        switch (i % 3) {
+        case 0:
+            task = new ToDo(description);
+            break;
+        case 1:
+            task = new Deadline(description, dateTime);
+            break;
+        default:
+            task = new Event(description, dateTime);
+            break;
+        }
+        if (i % 2 == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    protected static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i += 1) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,135 @@
+package duke.store;
+
+import java.util.Iterator;
+import java.util.List;
+
+import duke.MappedTaskSource;
+import duke.task.Task;
+
+/**
+ * Storage of the tasks in a task list, addressed by their position in the list (start at 0).
+ *
+ * Every task is also given an id when it is added, which stays the same until it is removed from the store, no
+ * matter how many tasks before it are removed. Ids increase in the order of the list: an appended task takes a new
+ * largest id, while a replacing task takes over the id of the one it replaces.
+ *
+ * A store is not thread-safe, the task list using it has to guard it.
+ */
+public interface TaskStore {
+    /**
+     * Get the number of tasks in the store
+     * @return Number of tasks
+     */
+    int size();
+
+    /**
+     * Get a task, decoding it from the source if necessary
+     * @param index Position of the task, start at 0
+     * @return The task
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this position
+     */
+    Task get(int index);
+
+    /**
+     * Get the id of a task
+     * @param index Position of the task, start at 0
+     * @return Id of the task
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this position
+     */
+    long getId(int index);
+
+    /**
+     * Get a task by its id, decoding it from the source if necessary
+     * @param id Id of the task
+     * @return The task, or null if no task in the store has this id
+     */
+    Task getById(long id);
+
+    /**
+     * Append a task to the end of the store
+     * @param task Task to be appended
+     * @return Id given to the task
+     */
+    long add(Task task);
+
+    /**
+     * Replace a task, the new task takes over its id
+     * @param index Position of the task, start at 0
+     * @param task Task to be used for replacement
+     * @return The task replaced
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this position
+     */
+    Task set(int index, Task task);
+
+    /**
+     * Mark a task as done
+     * @param index Position of the task, start at 0
+     * @return The task marked
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this position
+     */
+    Task markAsDone(int index);
+
+    /**
+     * Remove a task, moving all tasks after it one position forward
+     * @param index Position of the task, start at 0
+     * @return The task removed
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at this position
+     */
+    Task remove(int index);
+
+    /**
+     * Remove many tasks at once, moving the tasks left forward in a single pass
+     * @param indexes Positions of the tasks before any of them is removed, start at 0, in increasing order
+     * @return The tasks removed, in the order of the positions
+     * @throws IndexOutOfBoundsException This is thrown when there is no task at one of the positions
+     */
+    List<Task> removeAll(int[] indexes);
+
+    /**
+     * Replace the content of the store with tasks to be decoded from the source on first access
+     * @param source The source of tasks
+     */
+    void setSource(MappedTaskSource source);
+
+    /**
+     * Get the source of the tasks which have not been decoded yet
+     * @return The source, or null if every task has been decoded
+     */
+    MappedTaskSource getSource();
+
+    /**
+     * Check whether some tasks are still waiting in the source
+     * @return Whether any task has not been decoded yet
+     */
+    boolean hasUndecoded();
+
+    /**
+     * Get the number of a task in the source, if it has not been decoded yet
+     * @param index Position of the task, start at 0
+     * @return Number of the task in the source, or -1 if it has been decoded
+     */
+    int getUndecodedRecord(int index);
+
+    /**
+     * Iterate through a part of the store, decoding tasks from the source if necessary
+     * The store must not be changed during the iteration.
+     * @param from Position of the first task, start at 0
+     * @param to Position after the last task, the iteration also stops at the end of the store
+     * @return Iterator over the tasks
+     */
+    Iterator<Task> iterator(int from, int to);
+
+    /**
+     * Visit every task with its id, in the order of the list
+     * @param visitor Visitor called for each task
+     */
+    void forEach(TaskVisitor visitor);
+
+    /**
+     * Visitor of the tasks in a store
+     */
+    @FunctionalInterface
+    interface TaskVisitor {
+        void visit(long id, Task task);
+    }
+}
@@ -24,6 +24,23 @@ public class Deadline extends Task {
         typeIcon = "D";
     }
 
+    /**
+     * Get the 'by' dateTime of this task
+     * @return The 'by' dateTime
+     */
+    public DateTime getByDateTime() {
+        return byDateTime;
+    }
+
+    /**
+     * Get the date and time this task falls on, which is the 'by' dateTime
+     * @return The 'by' dateTime
+     */
+    @Override
+    public DateTime getDateTime() {
+        return byDateTime;
+    }
+
     /**
      * Check whether this deadline ('by' date) falls on the given dateTime
      * @param dateTime The date for comparison
@@ -35,10 +52,11 @@ public class Deadline extends Task {
     };
 
     /**
-     * Converts this task to a descriptive string
+     * Build the descriptive string of this task, with its 'by' dateTime
+     * @return The descriptive string
      */
     @Override
-    public String toString() {
-        return super.toString() + String.format(" (by: %s)", byDateTime);
+    protected String render() {
+        return super.render() + " (by: " + byDateTime + ")";
     }
 }
@@ -24,6 +24,23 @@ public class Event extends Task {
         typeIcon = "E";
     }
 
+    /**
+     * Get the 'at' dateTime of this task
+     * @return The 'at' dateTime
+     */
+    public DateTime getAtDateTime() {
+        return atDateTime;
+    }
+
+    /**
+     * Get the date and time this task falls on, which is the 'at' dateTime
+     * @return The 'at' dateTime
+     */
+    @Override
+    public DateTime getDateTime() {
+        return atDateTime;
+    }
+
     /**
      * Check whether this event occuring date ('at' date) falls on the given dateTime
      * @param dateTime The date for comparison
@@ -35,10 +52,11 @@ public class Event extends Task {
     };
 
     /**
-     * Converts this task to a descriptive string
+     * Build the descriptive string of this task, with its 'at' dateTime
+     * @return The descriptive string
      */
     @Override
-    public String toString() {
-        return super.toString() + String.format(" (at: %s)", atDateTime);
+    protected String render() {
+        return super.render() + " (at: " + atDateTime + ")";
     }
 }
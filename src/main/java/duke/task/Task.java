@@ -23,6 +23,10 @@ public abstract class Task implements Serializable {
     protected String description;
     protected boolean isDone;
 
+    // Cache of toString(), valid as long as `renderedVersion` is the current pattern version of DateTime
+    protected transient String rendered;
+    protected transient int renderedVersion;
+
     /**
      * Constructor of a task instance
      * @param description Description of the task, cannot be empty
@@ -62,11 +66,36 @@ public abstract class Task implements Serializable {
         return description;
     }
 
+    /**
+     * Check whether the task has been completed
+     * @return True for a completed task
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Mark the task as completed
      */
     public void markAsDone() {
         isDone = true;
+        rendered = null;
+    }
+
+    /**
+     * Mark the task as not completed, e.g. when marking it as done is undone
+     */
+    public void markAsNotDone() {
+        isDone = false;
+        rendered = null;
+    }
+
+    /**
+     * Get the date and time this task falls on
+     * @return The dateTime of this task, or null if this type of task does not bear one
+     */
+    public DateTime getDateTime() {
+        return null;
     }
 
     /**
@@ -77,10 +106,26 @@ public abstract class Task implements Serializable {
     public abstract Boolean isSameDate(DateTime dateTime);
 
     /**
-     * Converts this task to a descriptive string
+     * Converts this task to a descriptive string, which is only built again once the task is marked (as done or not)
+     * or the patterns of dateTime have changed
      */
     @Override
     public String toString() {
-        return String.format("[%s][%s] %s", getTypeIcon(), getStatusIcon(), getDescription());
+        int version = DateTime.getPatternVersion();
+        String result = rendered;
+        if (result == null || renderedVersion != version) {
+            result = render();
+            rendered = result;
+            renderedVersion = version;
+        }
+        return result;
+    }
+
+    /**
+     * Build the descriptive string of this task, as cached by toString()
+     * @return The descriptive string
+     */
+    protected String render() {
+        return "[" + getTypeIcon() + "][" + getStatusIcon() + "] " + getDescription();
     }
 }
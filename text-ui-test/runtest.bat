@@ -1,5 +1,11 @@
 @ECHO OFF
 
+REM delete save file from previous run, with its previous generation, temporary file and log
+if exist duke.save del duke.save
+if exist duke.save.prev del duke.save.prev
+if exist duke.save.tmp del duke.save.tmp
+if exist duke.save.log del duke.save.log
+
 REM create bin directory if it doesn't exist
 if not exist ..\bin mkdir ..\bin
 
@@ -2,11 +2,14 @@
 cwd=$(pwd)
 cd $(dirname "$0")
 
-# delete save file from previous run
-if [ -e "duke.save" ]
-then
-    rm duke.save
-fi
+# delete save file from previous run, with its previous generation, temporary file and log
+for file in duke.save duke.save.prev duke.save.tmp duke.save.log
+do
+    if [ -e "$file" ]
+    then
+        rm "$file"
+    fi
+done
 
 # create bin directory if it doesn't exist
 if [ ! -d "../bin" ]